@@ -0,0 +1,96 @@
+package com.sebastian.libs.msvc.commons.concurrent;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Deduplicates concurrent calls for the same key: the first caller runs the
+ * call, callers that arrive while it is still in flight wait for and share its
+ * result (or its exception). Nothing is cached once the call completes.
+ *
+ * <p>The optional listener is told, for every finished call, how many other
+ * callers were coalesced into it.
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentMap<K, Flight<V>> flights = new ConcurrentHashMap<>();
+    private final BiConsumer<K, Integer> listener;
+
+    public SingleFlight() {
+        this((key, shared) -> {
+        });
+    }
+
+    public SingleFlight(BiConsumer<K, Integer> listener) {
+        this.listener = listener;
+    }
+
+    public V execute(K key, Supplier<V> call) {
+        while (true) {
+            Flight<V> flight = new Flight<>();
+            Flight<V> existing = flights.putIfAbsent(key, flight);
+            if (existing == null) {
+                return run(key, flight, call);
+            }
+            if (existing.join()) {
+                return await(existing.result);
+            }
+            // It landed between the lookup and the join; nothing is cached, so start over
+        }
+    }
+
+    private V run(K key, Flight<V> flight, Supplier<V> call) {
+        try {
+            V value = call.get();
+            flight.result.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            flight.result.completeExceptionally(e);
+            throw e;
+        } finally {
+            flights.remove(key, flight);
+            listener.accept(key, flight.land());
+        }
+    }
+
+    private static <V> V await(CompletableFuture<V> result) {
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static class Flight<V> {
+
+        private final CompletableFuture<V> result = new CompletableFuture<>();
+        private int sharers;
+        private boolean landed;
+
+        // False once landed, so every caller that shares the result is in the count land() reports
+        private synchronized boolean join() {
+            if (landed) {
+                return false;
+            }
+            sharers++;
+            return true;
+        }
+
+        private synchronized int land() {
+            landed = true;
+            return sharers;
+        }
+
+    }
+
+}
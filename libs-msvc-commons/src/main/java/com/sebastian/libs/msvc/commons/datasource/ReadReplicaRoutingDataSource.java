@@ -0,0 +1,174 @@
+package com.sebastian.libs.msvc.commons.datasource;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Sends {@code @Transactional(readOnly = true)} work to a pool of read
+ * replicas and everything else to the primary, on top of
+ * {@link LazyConnectionDataSourceProxy}'s read-only data source: the physical
+ * connection is only picked on the first statement, from the replicas if the
+ * connection was marked read-only or the transaction is read-only by then.
+ * Replicas are used round robin; one that refuses a connection is skipped,
+ * and with none left the primary serves the read.
+ *
+ * <p>Hibernate has to give connections back at the end of each transaction
+ * ({@code DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION}), otherwise an
+ * open-in-view session keeps the first one for the whole request. In that
+ * mode it never marks the connection read-only, and it takes the lazy
+ * connection before Spring flags the transaction as read-only, so the flag
+ * is checked again when the physical connection is picked.
+ *
+ * <p>With a non-zero sticky window, reads on this instance go to the primary
+ * for that long after a write commits, so a client that just wrote does not
+ * read an older copy from a lagging replica.
+ *
+ * <p>Background readers that must not fall behind the primary, such as the
+ * tail of a change feed, wrap their reads in {@link #readFromPrimary}.
+ */
+public class ReadReplicaRoutingDataSource extends LazyConnectionDataSourceProxy implements AutoCloseable {
+
+    private static final ThreadLocal<Boolean> PRIMARY_READS = new ThreadLocal<>();
+
+    private final Logger logger = LoggerFactory.getLogger(ReadReplicaRoutingDataSource.class);
+    private final DataSource primary;
+    private final List<DataSource> replicas;
+    private final long stickyNanos;
+    private final AtomicInteger next = new AtomicInteger();
+
+    private volatile long stickyUntil = System.nanoTime();
+
+    public ReadReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas, Duration stickyWindow) {
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+        this.stickyNanos = stickyWindow.toNanos();
+        Reads reads = new Reads();
+        setTargetDataSource(new Writes(reads));
+        setReadOnlyDataSource(reads);
+        // Known up front, so no connection is opened at startup to find them out
+        setDefaultAutoCommit(true);
+        setDefaultTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+    }
+
+    /**
+     * Replica pools configured like {@code primary}, one per JDBC URL, with
+     * read-only connections.
+     */
+    public static ReadReplicaRoutingDataSource of(HikariDataSource primary, List<String> replicaUrls,
+            Duration stickyWindow) {
+        List<DataSource> replicas = new ArrayList<>(replicaUrls.size());
+        for (int i = 0; i < replicaUrls.size(); i++) {
+            HikariConfig config = new HikariConfig();
+            primary.copyStateTo(config);
+            config.setJdbcUrl(replicaUrls.get(i));
+            config.setPoolName((primary.getPoolName() == null ? "HikariPool" : primary.getPoolName()) + "-replica-" + i);
+            config.setReadOnly(true);
+            replicas.add(new HikariDataSource(config));
+        }
+        return new ReadReplicaRoutingDataSource(primary, replicas, stickyWindow);
+    }
+
+    /**
+     * Runs {@code reads} with every read-only transaction on this thread served
+     * by the primary. Without a routing data source in the context this is a
+     * plain call.
+     */
+    public static <T> T readFromPrimary(Supplier<T> reads) {
+        Boolean outer = PRIMARY_READS.get();
+        PRIMARY_READS.set(Boolean.TRUE);
+        try {
+            return reads.get();
+        } finally {
+            if (outer == null) {
+                PRIMARY_READS.remove();
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        for (DataSource replica : replicas) {
+            if (replica instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    logger.warn("Could not close read replica pool: {}", e.getMessage());
+                }
+            }
+        }
+    }
+
+    // The primary; a write transaction starts the sticky window when it commits
+    private class Writes extends DelegatingDataSource {
+
+        private final Reads reads;
+
+        Writes(Reads reads) {
+            super(primary);
+            this.reads = reads;
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+                return reads.getConnection();
+            }
+            if (stickyNanos > 0 && TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+                    @Override
+                    public void afterCommit() {
+                        stickyUntil = System.nanoTime() + stickyNanos;
+                    }
+
+                });
+            }
+            return primary.getConnection();
+        }
+
+    }
+
+    // The replicas round robin, the primary inside the sticky window or readFromPrimary
+    private class Reads extends DelegatingDataSource {
+
+        Reads() {
+            super(primary);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            if (replicas.isEmpty() || PRIMARY_READS.get() != null || System.nanoTime() - stickyUntil < 0) {
+                return primary.getConnection();
+            }
+            int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+            for (int i = 0; i < replicas.size(); i++) {
+                DataSource replica = replicas.get((start + i) % replicas.size());
+                try {
+                    return replica.getConnection();
+                } catch (SQLException e) {
+                    logger.warn("Read replica unavailable, trying the next one: {}", e.getMessage());
+                }
+            }
+            return primary.getConnection();
+        }
+
+    }
+
+}
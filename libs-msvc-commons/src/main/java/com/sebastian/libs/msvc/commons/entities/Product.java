@@ -2,20 +2,36 @@ package com.sebastian.libs.msvc.commons.entities;
 
 import java.time.LocalDate;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import jakarta.persistence.Transient;
+import jakarta.persistence.Version;
 
+// The Spring Data annotations map the same class for R2DBC (msvc-products' reactive profile).
+// @Cacheable only takes effect where the Hibernate second-level cache is switched on
 @Entity
-@Table(name = "products")
+@Cacheable
+@org.springframework.data.relational.core.mapping.Table("products")
+@Table(name = "products", indexes = {
+        @Index(name = "idx_products_name", columnList = "name"),
+        @Index(name = "idx_products_price", columnList = "price")
+})
 public class Product {
 
+    public static final int ID_ALLOCATION_SIZE = 50;
+
+    // Pooled ids (a products_seq table on MySQL) keep JDBC insert batching on, IDENTITY turns it off
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @org.springframework.data.annotation.Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "products_seq")
+    @SequenceGenerator(name = "products_seq", sequenceName = "products_seq", allocationSize = Product.ID_ALLOCATION_SIZE)
     private Long id;
 
     private String name;
@@ -25,7 +41,12 @@ public class Product {
     @Column(name = "create_at")
     private LocalDate createAt;
 
+    // JPA-only: Spring Data JPA rejects Spring's @Version, R2DBC writes go through explicit version checks
+    @Version
+    private Long version;
+
     @Transient
+    @org.springframework.data.annotation.Transient
     private int port;
 
     public Long getId() {
@@ -60,6 +81,14 @@ public class Product {
         this.createAt = createAt;
     }   
     
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public int getPort() {
         return port;
     }
@@ -70,7 +99,7 @@ public class Product {
 
     @Override
     public String toString() {
-        return "Product [id=" + id + ", name=" + name + ", price=" + price + ", createAt=" + createAt + ", port=" + port + "]";
+        return "Product [id=" + id + ", name=" + name + ", price=" + price + ", createAt=" + createAt + ", version=" + version + ", port=" + port + "]";
     }
 
 }
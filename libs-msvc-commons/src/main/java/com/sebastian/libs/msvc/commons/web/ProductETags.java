@@ -0,0 +1,42 @@
+package com.sebastian.libs.msvc.commons.web;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+
+import org.springframework.util.DigestUtils;
+
+import com.sebastian.libs.msvc.commons.entities.Product;
+
+/**
+ * Strong entity tags for product representations, derived from the id and
+ * version columns so msvc-products and its clients compute the same tag for
+ * the same data without comparing bodies. The serving instance's {@code port}
+ * is left out: it is diagnostic and would make every replica's tag differ.
+ * Responses carrying them should also vary by {@code Accept}, one tag covers
+ * every media type the data is written in.
+ */
+public final class ProductETags {
+
+    private ProductETags() {
+    }
+
+    public static String of(Product product) {
+        return "\"" + product.getId() + "-" + product.getVersion() + "\"";
+    }
+
+    public static String of(Collection<Product> products) {
+        StringBuilder versions = new StringBuilder();
+        products.forEach(product -> versions.append(product.getId()).append(':').append(product.getVersion()).append(','));
+        return "\"" + DigestUtils.md5DigestAsHex(versions.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
+    /**
+     * The weak form of a tag from {@link #of}, for representations that embed
+     * products next to data of their own, so they are equivalent rather than
+     * byte-for-byte equal whenever the products are.
+     */
+    public static String weak(String tag) {
+        return "W/" + tag;
+    }
+
+}
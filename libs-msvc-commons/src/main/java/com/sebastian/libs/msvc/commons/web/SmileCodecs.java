@@ -0,0 +1,47 @@
+package com.sebastian.libs.msvc.commons.web;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.json.Jackson2SmileDecoder;
+import org.springframework.http.codec.json.Jackson2SmileEncoder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+/**
+ * Smile, Jackson's binary JSON, as the wire format between the services.
+ * Servers offer it next to JSON and only send it to clients that ask for it,
+ * so browsers and the gateway keep getting JSON; internal clients put it
+ * first in their Accept header.
+ *
+ * <p>The mappers come from Spring Boot's {@link Jackson2ObjectMapperBuilder},
+ * so both formats share the {@code spring.jackson.*} settings.
+ */
+public final class SmileCodecs {
+
+    public static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+    public static final MediaType APPLICATION_SMILE = MediaType.parseMediaType(APPLICATION_SMILE_VALUE);
+
+    private SmileCodecs() {
+    }
+
+    public static ObjectMapper objectMapper(Jackson2ObjectMapperBuilder builder) {
+        return builder.factory(new SmileFactory()).build();
+    }
+
+    /** Spring MVC and Feign. */
+    public static MappingJackson2SmileHttpMessageConverter httpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(objectMapper(builder));
+    }
+
+    /** WebFlux and WebClient. */
+    public static Jackson2SmileEncoder encoder(Jackson2ObjectMapperBuilder builder) {
+        return new Jackson2SmileEncoder(objectMapper(builder));
+    }
+
+    public static Jackson2SmileDecoder decoder(Jackson2ObjectMapperBuilder builder) {
+        return new Jackson2SmileDecoder(objectMapper(builder));
+    }
+
+}
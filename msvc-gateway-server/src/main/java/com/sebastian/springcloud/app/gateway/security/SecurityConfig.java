@@ -31,6 +31,9 @@ public class SecurityConfig {
     SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http) throws Exception {
         return http
                 .authorizeExchange(authz -> authz
+                    // Service-to-service endpoints, only called between instances
+                    .pathMatchers("/api/products/internal/**", "/api/users/username/**")
+                    .denyAll()
                     .pathMatchers("/authorized", "/logout")
                     .permitAll()
                     .pathMatchers(HttpMethod.GET, "/api/items", "/api/products", "/api/users")
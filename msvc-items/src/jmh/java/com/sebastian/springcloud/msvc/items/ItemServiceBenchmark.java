@@ -0,0 +1,155 @@
+package com.sebastian.springcloud.msvc.items;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.beans.factory.ObjectFactory;
+import org.springframework.boot.autoconfigure.http.HttpMessageConverters;
+import org.springframework.cloud.openfeign.support.ResponseEntityDecoder;
+import org.springframework.cloud.openfeign.support.SpringDecoder;
+import org.springframework.cloud.openfeign.support.SpringEncoder;
+import org.springframework.cloud.openfeign.support.SpringMvcContract;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sebastian.springcloud.msvc.items.clients.HedgedRequests;
+import com.sebastian.springcloud.msvc.items.clients.LastKnownGoodProducts;
+import com.sebastian.springcloud.msvc.items.clients.ProductBatchCollapser;
+import com.sebastian.springcloud.msvc.items.clients.ProductCache;
+import com.sebastian.springcloud.msvc.items.clients.ProductFeignClient;
+import com.sebastian.springcloud.msvc.items.clients.ProductReactiveClient;
+import com.sebastian.springcloud.msvc.items.models.Item;
+import com.sebastian.springcloud.msvc.items.services.ItemService;
+import com.sebastian.springcloud.msvc.items.services.ItemServiceFeign;
+import com.sebastian.springcloud.msvc.items.services.ItemServiceReactive;
+import com.sebastian.springcloud.msvc.items.services.ItemServiceWebClient;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import feign.Feign;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * {@link ItemServiceWebClient} against {@link ItemServiceFeign}, both talking
+ * to a local stub of msvc-products. The near-cache, request collapsing and
+ * hedging are switched off so every call pays for a real HTTP round trip.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ItemServiceBenchmark {
+
+    @Param({ "10", "1000" })
+    private int catalogSize;
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private ItemService webClientService;
+    private ItemService feignService;
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper objectMapper = Products.objectMapper();
+        byte[] catalog = objectMapper.writeValueAsBytes(Products.products(catalogSize));
+        byte[] single = objectMapper.writeValueAsBytes(Products.product(1));
+
+        // Without TCP_NODELAY the stub's small responses wait on delayed ACKs
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        serverExecutor = Executors.newFixedThreadPool(4);
+        server.setExecutor(serverExecutor);
+        server.createContext("/", exchange -> respond(exchange,
+                "/".equals(exchange.getRequestURI().getPath()) ? catalog : single));
+        server.start();
+        String baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        WebClient webClient = WebClient.builder()
+                .baseUrl(baseUrl)
+                .codecs(codecs -> {
+                    codecs.defaultCodecs().maxInMemorySize(-1);
+                    codecs.defaultCodecs().jackson2JsonDecoder(new Jackson2JsonDecoder(objectMapper));
+                    codecs.defaultCodecs().jackson2JsonEncoder(new Jackson2JsonEncoder(objectMapper));
+                })
+                .build();
+        HedgedRequests hedging = new HedgedRequests(meterRegistry, false, 0.95, Duration.ofMillis(500), 0.05);
+        ProductReactiveClient productClient = new ProductReactiveClient(webClient,
+                new ProductBatchCollapser(webClient, hedging, Duration.ofMillis(2), 50, 200), hedging,
+                new LastKnownGoodProducts(meterRegistry, 10_000), false, 200);
+        ProductCache uncached = new ProductCache(productClient, meterRegistry, 0,
+                Duration.ofMinutes(10), Duration.ofMinutes(1));
+        webClientService = new ItemServiceWebClient(new ItemServiceReactive(productClient, uncached));
+
+        HttpMessageConverters messageConverters = new HttpMessageConverters(
+                new MappingJackson2HttpMessageConverter(objectMapper));
+        ObjectFactory<HttpMessageConverters> converters = () -> messageConverters;
+        ProductFeignClient feignClient = Feign.builder()
+                .contract(new SpringMvcContract())
+                .encoder(new SpringEncoder(converters))
+                .decoder(new ResponseEntityDecoder(new SpringDecoder(converters)))
+                .target(ProductFeignClient.class, baseUrl);
+        // The stub answers "/" with the whole catalog and no rel="next" link: a single page
+        feignService = new ItemServiceFeign(feignClient, meterRegistry, 200);
+    }
+
+    @TearDown
+    public void tearDown() {
+        server.stop(0);
+        // HttpServer.stop leaves the executor it was given running
+        serverExecutor.shutdownNow();
+    }
+
+    @Benchmark
+    public Optional<Item> webClientFindById() {
+        return webClientService.findById(1L);
+    }
+
+    @Benchmark
+    public Optional<Item> feignFindById() {
+        return feignService.findById(1L);
+    }
+
+    @Benchmark
+    public List<Item> webClientFindAll() {
+        return webClientService.findAll();
+    }
+
+    @Benchmark
+    public List<Item> feignFindAll() {
+        return feignService.findAll();
+    }
+
+    private static void respond(HttpExchange exchange, byte[] body) throws IOException {
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+}
@@ -0,0 +1,74 @@
+package com.sebastian.springcloud.msvc.items;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sebastian.libs.msvc.commons.entities.Product;
+import com.sebastian.springcloud.msvc.items.models.Item;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JacksonBenchmark {
+
+    private static final TypeReference<List<Product>> PRODUCT_LIST = new TypeReference<>() {
+    };
+    private static final TypeReference<List<Item>> ITEM_LIST = new TypeReference<>() {
+    };
+
+    @Param({ "1", "100", "10000" })
+    private int size;
+
+    private ObjectMapper objectMapper;
+    private List<Product> products;
+    private List<Item> items;
+    private byte[] productsJson;
+    private byte[] itemsJson;
+
+    @Setup
+    public void setUp() throws Exception {
+        objectMapper = Products.objectMapper();
+        products = Products.products(size);
+        items = products.stream().map(product -> new Item(product, 3)).toList();
+        productsJson = objectMapper.writeValueAsBytes(products);
+        itemsJson = objectMapper.writeValueAsBytes(items);
+    }
+
+    @Benchmark
+    public byte[] serializeProducts() throws Exception {
+        return objectMapper.writeValueAsBytes(products);
+    }
+
+    @Benchmark
+    public List<Product> deserializeProducts() throws Exception {
+        return objectMapper.readValue(productsJson, PRODUCT_LIST);
+    }
+
+    @Benchmark
+    public byte[] serializeItems() throws Exception {
+        return objectMapper.writeValueAsBytes(items);
+    }
+
+    @Benchmark
+    public List<Item> deserializeItems() throws Exception {
+        return objectMapper.readValue(itemsJson, ITEM_LIST);
+    }
+
+}
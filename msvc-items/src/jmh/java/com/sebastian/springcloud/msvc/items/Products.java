@@ -0,0 +1,57 @@
+package com.sebastian.springcloud.msvc.items;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.sebastian.libs.msvc.commons.entities.Product;
+
+/**
+ * Fixtures shared by the benchmarks.
+ */
+final class Products {
+
+    private Products() {
+    }
+
+    // Same defaults as the ObjectMapper Spring Boot configures
+    static ObjectMapper objectMapper() {
+        return JsonMapper.builder()
+                .findAndAddModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                .build();
+    }
+
+    static ObjectMapper smileMapper() {
+        return SmileMapper.builder()
+                .findAndAddModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                .build();
+    }
+
+    static Product product(long id) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName("Product " + id);
+        product.setPrice(10.0 + id % 1000);
+        product.setCreateAt(LocalDate.of(2025, 1, 1).plusDays(id % 365));
+        product.setPort(8001);
+        return product;
+    }
+
+    static List<Product> products(int size) {
+        List<Product> products = new ArrayList<>(size);
+        for (long id = 1; id <= size; id++) {
+            products.add(product(id));
+        }
+        return products;
+    }
+
+}
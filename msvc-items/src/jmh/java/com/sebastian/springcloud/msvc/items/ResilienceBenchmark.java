@@ -0,0 +1,61 @@
+package com.sebastian.springcloud.msvc.items;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cloud.circuitbreaker.resilience4j.Resilience4JCircuitBreakerFactory;
+import org.springframework.cloud.client.circuitbreaker.CircuitBreaker;
+
+import com.sebastian.libs.msvc.commons.entities.Product;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.timelimiter.TimeLimiterRegistry;
+
+/**
+ * Overhead of running a call through the circuit breaker and time limiter
+ * that {@link AppConfig} configures, compared to calling it directly.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResilienceBenchmark {
+
+    private Product product;
+    private CircuitBreaker circuitBreaker;
+
+    @Setup
+    public void setUp() {
+        product = Products.product(1);
+        Resilience4JCircuitBreakerFactory factory = new Resilience4JCircuitBreakerFactory(
+                CircuitBreakerRegistry.ofDefaults(), TimeLimiterRegistry.ofDefaults(), null);
+        new AppConfig().customizerCircuitBreaker().customize(factory);
+        circuitBreaker = factory.create("items");
+    }
+
+    @Benchmark
+    public Product direct() {
+        return lookup();
+    }
+
+    @Benchmark
+    public Product circuitBreakerWithTimeLimiter() {
+        return circuitBreaker.run(this::lookup, e -> product);
+    }
+
+    private Product lookup() {
+        return product;
+    }
+
+}
@@ -0,0 +1,80 @@
+package com.sebastian.springcloud.msvc.items;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sebastian.libs.msvc.commons.entities.Product;
+
+/**
+ * JSON against Smile for the {@code List<Product>} msvc-products sends to its
+ * internal clients: CPU per list encoded and decoded, and the payload size,
+ * reported by JMH as the {@code bytes} and {@code bytesPerProduct} secondary
+ * results of {@link #serialize}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WireFormatBenchmark {
+
+    private static final TypeReference<List<Product>> PRODUCT_LIST = new TypeReference<>() {
+    };
+
+    @Param({ "json", "smile" })
+    private String format;
+
+    @Param({ "100", "10000" })
+    private int size;
+
+    /** Size of the last list serialized, reported as is rather than as a rate. */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class PayloadSize {
+
+        public long bytes;
+        public double bytesPerProduct;
+
+    }
+
+    private ObjectMapper objectMapper;
+    private List<Product> products;
+    private byte[] payload;
+
+    @Setup
+    public void setUp() throws Exception {
+        objectMapper = "smile".equals(format) ? Products.smileMapper() : Products.objectMapper();
+        products = Products.products(size);
+        payload = objectMapper.writeValueAsBytes(products);
+    }
+
+    @Benchmark
+    public byte[] serialize(PayloadSize payloadSize) throws Exception {
+        byte[] bytes = objectMapper.writeValueAsBytes(products);
+        payloadSize.bytes = bytes.length;
+        payloadSize.bytesPerProduct = (double) bytes.length / size;
+        return bytes;
+    }
+
+    @Benchmark
+    public List<Product> deserialize() throws Exception {
+        return objectMapper.readValue(payload, PRODUCT_LIST);
+    }
+
+}
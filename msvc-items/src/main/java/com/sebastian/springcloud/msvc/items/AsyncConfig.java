@@ -0,0 +1,35 @@
+package com.sebastian.springcloud.msvc.items;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.sebastian.springcloud.msvc.items.resilience.DownstreamBulkhead;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+@Configuration
+public class AsyncConfig {
+
+    @Bean(destroyMethod = "close")
+    ExecutorService itemsAsyncExecutor(
+            @Value("${config.items.async.virtual-threads:true}") boolean virtualThreads,
+            @Value("${config.items.async.pool-size:20}") int poolSize) {
+        if (virtualThreads) {
+            return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("items-async-", 0).factory());
+        }
+        return Executors.newFixedThreadPool(poolSize);
+    }
+
+    @Bean
+    DownstreamBulkhead productsBulkhead(ExecutorService itemsAsyncExecutor, MeterRegistry meterRegistry,
+            @Value("${config.items.bulkhead.msvc-products.max-concurrent-calls:50}") int maxConcurrentCalls,
+            @Value("${config.items.bulkhead.msvc-products.max-wait:100ms}") Duration maxWait) {
+        return new DownstreamBulkhead("msvc-products", itemsAsyncExecutor, maxConcurrentCalls, maxWait, meterRegistry);
+    }
+
+}
@@ -4,10 +4,14 @@ import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClient;
 import org.springframework.cloud.openfeign.EnableFeignClients;
 
+import com.sebastian.springcloud.msvc.items.loadbalancer.ProductsLoadBalancerConfig;
+
 @EnableAutoConfiguration(exclude = { DataSourceAutoConfiguration.class })
 @EnableFeignClients
+@LoadBalancerClient(name = "msvc-products", configuration = ProductsLoadBalancerConfig.class)
 @SpringBootApplication
 public class MsvcItemsApplication {
 
@@ -0,0 +1,121 @@
+package com.sebastian.springcloud.msvc.items.clients;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+/**
+ * Hedges idempotent reads: when the first attempt has not answered within the
+ * configured percentile of recent latencies, a second attempt is sent and the
+ * first value wins while the other subscription is cancelled. A failed attempt
+ * does not win: the read only fails once both have failed, with the first
+ * attempt's error, and no hedge is sent once the first attempt has ended.
+ * Hedges are paid for from a budget that every primary request tops up by
+ * {@code budget-ratio}, so they never add more than that fraction of extra load.
+ *
+ * <p>Both attempts share an {@link AtomicReference} that the load balancer
+ * fills with the instance picked for the first attempt, so the hedge goes to a
+ * different replica.
+ */
+@Component
+public class HedgedRequests {
+
+    private static final int SAMPLE_SIZE = 1024;
+    private static final int RECALCULATE_EVERY = 64;
+    private static final double MAX_TOKENS = 10.0;
+
+    private final boolean enabled;
+    private final double percentile;
+    private final double budgetRatio;
+    private final long[] samples = new long[SAMPLE_SIZE];
+    private final Counter hedgesSent;
+    private final Counter hedgesDenied;
+
+    private long recorded;
+    private double tokens;
+    private volatile long hedgeDelayNanos;
+
+    public HedgedRequests(MeterRegistry meterRegistry,
+            @Value("${config.items.hedging.enabled:false}") boolean enabled,
+            @Value("${config.items.hedging.percentile:0.95}") double percentile,
+            @Value("${config.items.hedging.initial-delay:500ms}") Duration initialDelay,
+            @Value("${config.items.hedging.budget-ratio:0.05}") double budgetRatio) {
+        this.enabled = enabled;
+        this.percentile = percentile;
+        this.budgetRatio = budgetRatio;
+        this.hedgeDelayNanos = initialDelay.toNanos();
+        this.hedgesSent = Counter.builder("items.hedging.requests").tag("outcome", "sent").register(meterRegistry);
+        this.hedgesDenied = Counter.builder("items.hedging.requests").tag("outcome", "denied").register(meterRegistry);
+        Gauge.builder("items.hedging.delay", this, hedging -> hedging.hedgeDelayNanos / 1_000_000.0)
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+
+    public <T> Mono<T> hedge(Function<AtomicReference<String>, Mono<T>> call) {
+        if (!enabled) {
+            return call.apply(new AtomicReference<>());
+        }
+
+        return Mono.defer(() -> {
+            AtomicReference<String> firstInstance = new AtomicReference<>();
+            AtomicReference<Throwable> primaryError = new AtomicReference<>();
+            Sinks.Empty<Void> primaryEnded = Sinks.empty();
+            long start = System.nanoTime();
+            deposit();
+
+            Mono<T> primary = call.apply(firstInstance)
+                    .doOnError(primaryError::set)
+                    .doFinally(signal -> primaryEnded.tryEmitEmpty());
+            Mono<T> hedge = Mono.firstWithSignal(Mono.delay(Duration.ofNanos(hedgeDelayNanos)), primaryEnded.asMono())
+                    .flatMap(tick -> {
+                        if (!withdraw()) {
+                            hedgesDenied.increment();
+                            return Mono.<T>empty();
+                        }
+                        hedgesSent.increment();
+                        return call.apply(firstInstance);
+                    });
+
+            // Neither attempt produced a value: answer as the first attempt did, empty or with its error
+            return Mono.firstWithValue(primary, hedge)
+                    .onErrorResume(NoSuchElementException.class, e -> primaryError.get() == null
+                            ? Mono.empty()
+                            : Mono.error(primaryError.get()))
+                    .doOnSuccess(value -> record(System.nanoTime() - start));
+        });
+    }
+
+    private synchronized void deposit() {
+        tokens = Math.min(MAX_TOKENS, tokens + budgetRatio);
+    }
+
+    private synchronized boolean withdraw() {
+        if (tokens < 1.0) {
+            return false;
+        }
+        tokens -= 1.0;
+        return true;
+    }
+
+    private synchronized void record(long latencyNanos) {
+        samples[(int) (recorded % SAMPLE_SIZE)] = latencyNanos;
+        recorded++;
+        if (recorded % RECALCULATE_EVERY == 0) {
+            long[] sorted = Arrays.copyOf(samples, (int) Math.min(recorded, SAMPLE_SIZE));
+            Arrays.sort(sorted);
+            hedgeDelayNanos = sorted[(int) Math.min(sorted.length - 1, Math.floor(sorted.length * percentile))];
+        }
+    }
+
+}
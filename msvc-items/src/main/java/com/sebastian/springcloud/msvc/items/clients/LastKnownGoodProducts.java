@@ -0,0 +1,53 @@
+package com.sebastian.springcloud.msvc.items.clients;
+
+import java.time.Instant;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.sebastian.libs.msvc.commons.entities.Product;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Bounded store of the last product msvc-products successfully returned for
+ * each id. Entries never expire on their own: they are only replaced by newer
+ * responses, removed on delete or evicted by size, so fallbacks can keep
+ * serving real data for as long as the outage lasts.
+ */
+@Component
+public class LastKnownGoodProducts {
+
+    private final Cache<Long, StaleProduct> products;
+
+    public LastKnownGoodProducts(MeterRegistry meterRegistry,
+            @Value("${config.items.last-known-good.maximum-size:10000}") long maximumSize) {
+        this.products = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, products, "items.products.last-known-good");
+    }
+
+    public void record(Product product) {
+        if (product != null && product.getId() != null) {
+            products.put(product.getId(), new StaleProduct(product, Instant.now()));
+        }
+    }
+
+    public void remove(Long id) {
+        products.invalidate(id);
+    }
+
+    public Optional<StaleProduct> find(Long id) {
+        return Optional.ofNullable(products.getIfPresent(id));
+    }
+
+    public record StaleProduct(Product product, Instant recordedAt) {
+    }
+
+}
@@ -0,0 +1,128 @@
+package com.sebastian.springcloud.msvc.items.clients;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import com.sebastian.libs.msvc.commons.entities.Product;
+import com.sebastian.libs.msvc.commons.web.SmileCodecs;
+import com.sebastian.springcloud.msvc.items.loadbalancer.LatencyAwareLoadBalancer;
+
+import jakarta.annotation.PreDestroy;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+/**
+ * Gathers concurrent single-id product lookups for a short window (or until
+ * the batch is full) and resolves them with one call to msvc-products'
+ * {@code GET /batch?ids=...}, fanning each product back out to its caller.
+ * msvc-products refuses more ids per call than its page size, so a batch
+ * with more distinct ids than {@code config.items.products.page-size} goes
+ * out in several calls.
+ *
+ * <p>Batches are only pulled as fast as the calls for earlier ones finish,
+ * and if the pipeline ever ends with an error it subscribes again to the
+ * lookups still queued, so one bad moment does not stop the collapser for
+ * the life of the process.
+ */
+@Component
+public class ProductBatchCollapser {
+
+    private final Logger logger = LoggerFactory.getLogger(ProductBatchCollapser.class);
+    private final WebClient webClient;
+    private final HedgedRequests hedgedRequests;
+    private final int maxIdsPerRequest;
+    // Multicast without auto-cancel, so the sink outlives a subscriber that failed and can be subscribed to again
+    private final Sinks.Many<PendingLookup> lookups = Sinks.many().multicast()
+            .onBackpressureBuffer(Integer.MAX_VALUE, false);
+    private final Disposable subscription;
+
+    public ProductBatchCollapser(WebClient webClient, HedgedRequests hedgedRequests,
+            @Value("${config.items.collapser.window:2ms}") Duration window,
+            @Value("${config.items.collapser.max-batch-size:50}") int maxBatchSize,
+            @Value("${config.items.products.page-size:200}") int maxIdsPerRequest) {
+        this.webClient = webClient;
+        this.hedgedRequests = hedgedRequests;
+        this.maxIdsPerRequest = maxIdsPerRequest;
+        this.subscription = lookups.asFlux()
+                .bufferTimeout(maxBatchSize, window, true)
+                .flatMap(batch -> Mono.defer(() -> dispatch(batch))
+                        .onErrorResume(e -> {
+                            fail(batch, e);
+                            return Mono.empty();
+                        }))
+                .doOnError(e -> logger.warn("Product lookup collapser failed, subscribing again: {}", e.getMessage()))
+                .retry()
+                .subscribe();
+    }
+
+    public Mono<Product> findById(Long id) {
+        return Mono.defer(() -> {
+            Sinks.One<Product> result = Sinks.one();
+            lookups.emitNext(new PendingLookup(id, result), Sinks.EmitFailureHandler.busyLooping(Duration.ofMillis(100)));
+            return result.asMono();
+        });
+    }
+
+    private Mono<Void> dispatch(List<PendingLookup> batch) {
+        Map<Long, List<PendingLookup>> byId = batch.stream()
+                .collect(Collectors.groupingBy(PendingLookup::id, LinkedHashMap::new, Collectors.toList()));
+        logger.debug("Collapsed {} product lookups into a batch of {} ids", batch.size(), byId.size());
+
+        return Flux.fromIterable(byId.keySet())
+                .buffer(maxIdsPerRequest)
+                .flatMap(ids -> fetch(ids, ids.stream().flatMap(id -> byId.get(id).stream()).toList()))
+                .then();
+    }
+
+    private Mono<Void> fetch(List<Long> ids, List<PendingLookup> batch) {
+        return hedgedRequests.hedge(hedgeGroup -> webClient
+                .get()
+                .uri(uriBuilder -> uriBuilder.path("/batch").queryParam("ids", ids).build())
+                .attribute(LatencyAwareLoadBalancer.HEDGE_GROUP_ATTRIBUTE, hedgeGroup)
+                .accept(SmileCodecs.APPLICATION_SMILE, MediaType.APPLICATION_JSON)
+                .retrieve()
+                .bodyToFlux(Product.class)
+                .collectMap(Product::getId, Function.identity()))
+                .doOnNext(products -> complete(batch, products))
+                .doOnError(e -> fail(batch, e))
+                .onErrorResume(e -> Mono.empty())
+                .then();
+    }
+
+    private void fail(List<PendingLookup> batch, Throwable error) {
+        batch.forEach(lookup -> lookup.result().tryEmitError(error));
+    }
+
+    private void complete(List<PendingLookup> batch, Map<Long, Product> products) {
+        batch.forEach(lookup -> {
+            Product product = products.get(lookup.id());
+            if (product != null) {
+                lookup.result().tryEmitValue(product);
+            } else {
+                lookup.result().tryEmitEmpty();
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscription.dispose();
+    }
+
+    private record PendingLookup(Long id, Sinks.One<Product> result) {
+    }
+
+}
@@ -0,0 +1,115 @@
+package com.sebastian.springcloud.msvc.items.clients;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.AsyncCacheLoader;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.sebastian.libs.msvc.commons.entities.Product;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * In-process near-cache of msvc-products responses. Caffeine's W-TinyLFU
+ * policy bounds the entries by size, entries expire after a TTL and hot
+ * entries are revalidated in the background before they expire, with
+ * If-None-Match so unchanged products cost a 304 and no body. Statistics are
+ * published to actuator under the {@code cache} metrics. A maximum size of 0
+ * turns the cache off and every lookup goes straight to msvc-products.
+ */
+@Component
+public class ProductCache {
+
+    private static final String ALL_PRODUCTS = "all";
+
+    private final ProductReactiveClient productClient;
+    private final boolean enabled;
+    private final AsyncLoadingCache<Long, Product> products;
+    private final AsyncLoadingCache<String, List<Product>> listings;
+
+    public ProductCache(ProductReactiveClient productClient, MeterRegistry meterRegistry,
+            @Value("${config.items.cache.maximum-size:10000}") long maximumSize,
+            @Value("${config.items.cache.expire-after-write:10m}") Duration expireAfterWrite,
+            @Value("${config.items.cache.refresh-after-write:1m}") Duration refreshAfterWrite) {
+
+        this.productClient = productClient;
+        this.enabled = maximumSize > 0;
+
+        this.products = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .refreshAfterWrite(refreshAfterWrite)
+                .recordStats()
+                .buildAsync(new AsyncCacheLoader<Long, Product>() {
+
+                    @Override
+                    public CompletableFuture<Product> asyncLoad(Long id, Executor executor) {
+                        return productClient.findById(id).toFuture();
+                    }
+
+                    @Override
+                    public CompletableFuture<Product> asyncReload(Long id, Product cached, Executor executor) {
+                        return productClient.revalidate(cached).toFuture();
+                    }
+
+                });
+
+        this.listings = Caffeine.newBuilder()
+                .maximumSize(1)
+                .expireAfterWrite(expireAfterWrite)
+                .refreshAfterWrite(refreshAfterWrite)
+                .recordStats()
+                .buildAsync(new AsyncCacheLoader<String, List<Product>>() {
+
+                    @Override
+                    public CompletableFuture<List<Product>> asyncLoad(String key, Executor executor) {
+                        return productClient.findAll(null).collectList().toFuture();
+                    }
+
+                    @Override
+                    public CompletableFuture<List<Product>> asyncReload(String key, List<Product> cached,
+                            Executor executor) {
+                        return productClient.revalidateAll(cached).toFuture();
+                    }
+
+                });
+
+        CaffeineCacheMetrics.monitor(meterRegistry, products, "items.products");
+        CaffeineCacheMetrics.monitor(meterRegistry, listings, "items.products.listing");
+    }
+
+    public Mono<Product> findById(Long id) {
+        if (!enabled) {
+            return productClient.findById(id);
+        }
+        return Mono.fromFuture(() -> products.get(id), true);
+    }
+
+    public Flux<Product> findAll(String name) {
+        // Only the unfiltered listing is cached, name searches go to msvc-products' index
+        if (!enabled || name != null) {
+            return productClient.findAll(name);
+        }
+        return Mono.fromFuture(() -> listings.get(ALL_PRODUCTS), true)
+                .flatMapIterable(list -> list);
+    }
+
+    public void invalidate(Long id) {
+        products.synchronous().invalidate(id);
+        invalidateListings();
+    }
+
+    public void invalidateListings() {
+        listings.synchronous().invalidateAll();
+    }
+
+}
@@ -1,24 +1,31 @@
 package com.sebastian.springcloud.msvc.items.clients;
 
 import java.util.List;
+import java.util.Map;
 
 import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 
 import com.sebastian.libs.msvc.commons.entities.Product;
+import com.sebastian.libs.msvc.commons.web.SmileCodecs;
 
+// produces becomes the Accept header: Smile first, JSON if the server has no Smile
 @FeignClient(name = "msvc-products")
 public interface ProductFeignClient {
 
-    @GetMapping
-    List<Product> findAll();
+    // One keyset page; the rel="next" Link header carries the query of the next one (see ProductPages)
+    @GetMapping(produces = { SmileCodecs.APPLICATION_SMILE_VALUE, MediaType.APPLICATION_JSON_VALUE })
+    ResponseEntity<List<Product>> findPage(@RequestParam Map<String, String> query);
 
-    @GetMapping("/{id}")
+    @GetMapping(path = "/{id}", produces = { SmileCodecs.APPLICATION_SMILE_VALUE, MediaType.APPLICATION_JSON_VALUE })
     Product details(@PathVariable Long id);
     
     @PostMapping
@@ -0,0 +1,70 @@
+package com.sebastian.springcloud.msvc.items.clients;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.util.UriComponentsBuilder;
+import org.springframework.web.util.UriUtils;
+
+import com.sebastian.libs.msvc.commons.entities.Product;
+
+/**
+ * msvc-products lists in keyset pages: a full page carries
+ * {@code Link: <...?after=&size=>; rel="next"}. Only the query of that link
+ * is replayed, so the next page still goes through the load balancer rather
+ * than to the instance that built the link.
+ */
+public final class ProductPages {
+
+    private static final Pattern NEXT = Pattern.compile("<([^>]*)>\\s*;\\s*rel=\"next\"");
+
+    private ProductPages() {
+    }
+
+    /** The query of the first page: the given size and, if present, the name filter. */
+    public static MultiValueMap<String, String> first(String name, int size) {
+        MultiValueMap<String, String> query = new LinkedMultiValueMap<>();
+        if (name != null) {
+            query.add("name", name);
+        }
+        query.add("size", String.valueOf(size));
+        return query;
+    }
+
+    /** The decoded query of the rel="next" link, empty on the last page. */
+    public static Optional<MultiValueMap<String, String>> next(HttpHeaders headers) {
+        for (String link : headers.getOrEmpty(HttpHeaders.LINK)) {
+            Matcher matcher = NEXT.matcher(link);
+            if (matcher.find()) {
+                MultiValueMap<String, String> query = new LinkedMultiValueMap<>();
+                UriComponentsBuilder.fromUriString(matcher.group(1)).build().getQueryParams()
+                        .forEach((key, values) -> values.forEach(value ->
+                                query.add(key, value == null ? null : UriUtils.decode(value, StandardCharsets.UTF_8))));
+                return Optional.of(query);
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * What a page of the unfiltered listing held in {@code cached}: the first
+     * {@code size} products after the {@code after} cursor, to send its ETag
+     * with If-None-Match.
+     */
+    public static List<Product> slice(List<Product> cached, MultiValueMap<String, String> query) {
+        String after = query.getFirst("after");
+        long afterId = after == null ? 0L : Long.parseLong(after);
+        int size = Integer.parseInt(query.getFirst("size"));
+        return cached.stream()
+                .filter(product -> product.getId() > afterId)
+                .limit(size)
+                .toList();
+    }
+
+}
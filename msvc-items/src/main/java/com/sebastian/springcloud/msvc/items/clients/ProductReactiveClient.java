@@ -0,0 +1,206 @@
+package com.sebastian.springcloud.msvc.items.clients;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import com.sebastian.libs.msvc.commons.entities.Product;
+import com.sebastian.libs.msvc.commons.web.ProductETags;
+import com.sebastian.libs.msvc.commons.web.SmileCodecs;
+import com.sebastian.springcloud.msvc.items.loadbalancer.LatencyAwareLoadBalancer;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Component
+public class ProductReactiveClient {
+
+    private record Page(List<Product> products, MultiValueMap<String, String> next) {
+    }
+
+    private final WebClient webClient;
+    private final ProductBatchCollapser productBatchCollapser;
+    private final HedgedRequests hedgedRequests;
+    private final LastKnownGoodProducts lastKnownGoodProducts;
+    private final boolean collapseLookups;
+    private final int pageSize;
+
+    public ProductReactiveClient(WebClient webClient, ProductBatchCollapser productBatchCollapser,
+            HedgedRequests hedgedRequests, LastKnownGoodProducts lastKnownGoodProducts,
+            @Value("${config.items.collapser.enabled:true}") boolean collapseLookups,
+            @Value("${config.items.products.page-size:200}") int pageSize) {
+        this.webClient = webClient;
+        this.productBatchCollapser = productBatchCollapser;
+        this.hedgedRequests = hedgedRequests;
+        this.lastKnownGoodProducts = lastKnownGoodProducts;
+        this.collapseLookups = collapseLookups;
+        this.pageSize = pageSize;
+    }
+
+    /** Every matching product: follows the rel="next" links until the last page. */
+    public Flux<Product> findAll(String name) {
+        return fetchPage(ProductPages.first(name, pageSize), null)
+                .expand(page -> page.next() == null ? Mono.empty() : fetchPage(page.next(), null))
+                .concatMapIterable(Page::products)
+                .doOnNext(lastKnownGoodProducts::record);
+    }
+
+    /**
+     * Re-fetches the unfiltered listing only where it changed: each page is
+     * requested with the ETag of the same slice of the cached copy, and that
+     * slice is kept on a 304.
+     */
+    public Mono<List<Product>> revalidateAll(List<Product> cached) {
+        return fetchPage(ProductPages.first(null, pageSize), cached)
+                .expand(page -> page.next() == null ? Mono.empty() : fetchPage(page.next(), cached))
+                .concatMapIterable(Page::products)
+                .doOnNext(lastKnownGoodProducts::record)
+                .collectList();
+    }
+
+    private Mono<Page> fetchPage(MultiValueMap<String, String> query, List<Product> cached) {
+        List<Product> expected = cached == null ? null : ProductPages.slice(cached, query);
+        return webClient
+                .get()
+                .uri(uriBuilder -> uriBuilder.queryParams(query).build())
+                .accept(SmileCodecs.APPLICATION_SMILE, MediaType.APPLICATION_JSON)
+                .headers(headers -> {
+                    if (expected != null && !expected.isEmpty()) {
+                        headers.setIfNoneMatch(ProductETags.of(expected));
+                    }
+                })
+                .exchangeToMono(response -> {
+                    MultiValueMap<String, String> next = ProductPages.next(response.headers().asHttpHeaders())
+                            .orElse(null);
+                    if (expected != null && response.statusCode().isSameCodeAs(HttpStatus.NOT_MODIFIED)) {
+                        return response.releaseBody().thenReturn(new Page(expected, next));
+                    }
+                    if (response.statusCode().is2xxSuccessful()) {
+                        return response.bodyToFlux(Product.class)
+                                .collectList()
+                                .map(products -> new Page(products, next));
+                    }
+                    return response.createError();
+                });
+    }
+
+    public Flux<Product> streamAll(String name) {
+        return webClient
+                .get()
+                .uri(uriBuilder -> uriBuilder.queryParamIfPresent("name", Optional.ofNullable(name)).build())
+                .accept(MediaType.APPLICATION_NDJSON)
+                .retrieve()
+                .bodyToFlux(Product.class)
+                .doOnNext(lastKnownGoodProducts::record);
+    }
+
+    public Mono<Product> findById(Long id) {
+        return fetchById(id).doOnNext(lastKnownGoodProducts::record);
+    }
+
+    private Mono<Product> fetchById(Long id) {
+        if (collapseLookups) {
+            return productBatchCollapser.findById(id);
+        }
+
+        Map<String, String> pathVariables = new HashMap<>();
+        pathVariables.put("id", id.toString());
+
+        return hedgedRequests.hedge(hedgeGroup -> webClient
+                .get()
+                .uri("/{id}", pathVariables)
+                .attribute(LatencyAwareLoadBalancer.HEDGE_GROUP_ATTRIBUTE, hedgeGroup)
+                .accept(SmileCodecs.APPLICATION_SMILE, MediaType.APPLICATION_JSON)
+                .retrieve()
+                .bodyToMono(Product.class))
+                .onErrorResume(WebClientResponseException.NotFound.class, e -> Mono.empty());
+    }
+
+    /**
+     * Same as {@link #revalidateAll(List)} for a single product: empty when it
+     * is gone, the cached instance on a 304.
+     */
+    public Mono<Product> revalidate(Product cached) {
+        Map<String, String> pathVariables = new HashMap<>();
+        pathVariables.put("id", cached.getId().toString());
+
+        return webClient
+                .get()
+                .uri("/{id}", pathVariables)
+                .accept(SmileCodecs.APPLICATION_SMILE, MediaType.APPLICATION_JSON)
+                .ifNoneMatch(ProductETags.of(cached))
+                .exchangeToMono(response -> {
+                    if (response.statusCode().isSameCodeAs(HttpStatus.NOT_MODIFIED)) {
+                        return response.releaseBody().thenReturn(cached);
+                    }
+                    if (response.statusCode().isSameCodeAs(HttpStatus.NOT_FOUND)) {
+                        return response.releaseBody().then(Mono.<Product>empty());
+                    }
+                    if (response.statusCode().is2xxSuccessful()) {
+                        return response.bodyToMono(Product.class);
+                    }
+                    return response.createError();
+                })
+                .doOnNext(lastKnownGoodProducts::record);
+    }
+
+    public Mono<Product> create(Product product) {
+        return webClient
+                .post()
+                .accept(SmileCodecs.APPLICATION_SMILE, MediaType.APPLICATION_JSON)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(product)
+                .retrieve()
+                .bodyToMono(Product.class)
+                .doOnNext(lastKnownGoodProducts::record);
+    }
+
+    public Flux<Product> createAll(List<Product> products) {
+        return webClient
+                .post()
+                .uri("/batch")
+                .accept(SmileCodecs.APPLICATION_SMILE, MediaType.APPLICATION_JSON)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(products)
+                .retrieve()
+                .bodyToFlux(Product.class)
+                .doOnNext(lastKnownGoodProducts::record);
+    }
+
+    public Mono<Product> update(Product product, Long id) {
+        Map<String, String> pathVariables = new HashMap<>();
+        pathVariables.put("id", id.toString());
+
+        return webClient
+                .put()
+                .uri("/{id}", pathVariables)
+                .accept(SmileCodecs.APPLICATION_SMILE, MediaType.APPLICATION_JSON)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(product)
+                .retrieve()
+                .bodyToMono(Product.class)
+                .doOnNext(lastKnownGoodProducts::record);
+    }
+
+    public Mono<Void> delete(Long id) {
+        Map<String, String> pathVariables = new HashMap<>();
+        pathVariables.put("id", id.toString());
+
+        return webClient
+                .delete()
+                .uri("/{id}", pathVariables)
+                .retrieve()
+                .bodyToMono(Void.class)
+                .doOnSuccess(deleted -> lastKnownGoodProducts.remove(id));
+    }
+
+}
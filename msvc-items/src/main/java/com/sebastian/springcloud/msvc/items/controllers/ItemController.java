@@ -1,5 +1,7 @@
 package com.sebastian.springcloud.msvc.items.controllers;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -10,9 +12,10 @@ import java.util.concurrent.CompletableFuture;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Qualifier;
-import org.springframework.cloud.client.circuitbreaker.CircuitBreakerFactory;
 import org.springframework.core.env.Environment;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -26,24 +29,39 @@ import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.sebastian.libs.msvc.commons.entities.Product;
+import com.sebastian.libs.msvc.commons.web.ProductETags;
+import com.sebastian.springcloud.msvc.items.clients.LastKnownGoodProducts;
 import com.sebastian.springcloud.msvc.items.models.Item;
+import com.sebastian.springcloud.msvc.items.resilience.DownstreamBulkhead;
+import com.sebastian.springcloud.msvc.items.resilience.ReactiveCircuitBreaker;
 import com.sebastian.springcloud.msvc.items.services.ItemService;
+import com.sebastian.springcloud.msvc.items.services.ReactiveItemService;
 
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
 import io.github.resilience4j.timelimiter.annotation.TimeLimiter;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 @RestController
 public class ItemController {
 
     private final ItemService itemService;
-    private final CircuitBreakerFactory circuitBreakerFactory;
+    private final ReactiveItemService reactiveItemService;
+    private final ReactiveCircuitBreaker reactiveCircuitBreaker;
+    private final DownstreamBulkhead productsBulkhead;
+    private final LastKnownGoodProducts lastKnownGoodProducts;
     private final Logger logger = LoggerFactory.getLogger(ItemController.class);
     private final Environment env;
 
     public ItemController(@Qualifier("itemServiceWebClient") ItemService itemService,
-            CircuitBreakerFactory circuitBreakerFactory, Environment env) {
+            ReactiveItemService reactiveItemService, ReactiveCircuitBreaker reactiveCircuitBreaker,
+            DownstreamBulkhead productsBulkhead, LastKnownGoodProducts lastKnownGoodProducts,
+            Environment env) {
         this.itemService = itemService;
-        this.circuitBreakerFactory = circuitBreakerFactory;
+        this.reactiveItemService = reactiveItemService;
+        this.reactiveCircuitBreaker = reactiveCircuitBreaker;
+        this.productsBulkhead = productsBulkhead;
+        this.lastKnownGoodProducts = lastKnownGoodProducts;
         this.env = env;
     }
 
@@ -66,7 +84,7 @@ public class ItemController {
     }
 
     @GetMapping
-    public List<Item> list(
+    public Mono<ResponseEntity<List<Item>>> list(
             @RequestParam(name = "name", required = false) String name,
             @RequestHeader(name = "token-request", required = false) String tokenHeader) {
 
@@ -74,34 +92,47 @@ public class ItemController {
         logger.info("Token Request Header: {}", tokenHeader);
         logger.info("Name Request Parameter: {}", name);
 
-        return itemService.findAll();
+        // Weakly tagged by the products' ids and versions (quantity and total are not covered),
+        // a matching If-None-Match gets a 304
+        return reactiveCircuitBreaker.run("items", reactiveItemService.findAll(name), Flux::error)
+                .collectList()
+                .map(items -> ResponseEntity.ok()
+                        .eTag(ProductETags.weak(ProductETags.of(items.stream().map(Item::getProduct).toList())))
+                        .varyBy(HttpHeaders.ACCEPT)
+                        .body(items));
+    }
+
+    @GetMapping(produces = { MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE })
+    public Flux<Item> stream(
+            @RequestParam(name = "name", required = false) String name,
+            @RequestHeader(name = "token-request", required = false) String tokenHeader) {
+
+        logger.info("Entering stream method in ItemController");
+        logger.info("Token Request Header: {}", tokenHeader);
+        logger.info("Name Request Parameter: {}", name);
+
+        return reactiveCircuitBreaker.run("items", reactiveItemService.stream(name), Flux::error);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<?> detail(@PathVariable Long id) {
+    public Mono<ResponseEntity<?>> detail(@PathVariable Long id) {
 
         logger.info("Entering detail method in ItemController with id: {}", id);
 
-        Optional<Item> item = circuitBreakerFactory
-                .create("items")
-                .run(() -> itemService.findById(id),
+        return reactiveCircuitBreaker
+                .run("items", reactiveItemService.findById(id)
+                        .<ResponseEntity<?>>map(item -> ResponseEntity.ok()
+                                .eTag(ProductETags.weak(ProductETags.of(item.getProduct())))
+                                .varyBy(HttpHeaders.ACCEPT)
+                                .body(item))
+                        .defaultIfEmpty(ResponseEntity
+                                .status(404)
+                                .body(
+                                        Collections.singletonMap("message", "Item not found"))),
                         e -> {
                             logger.error("Error occurred: {}", e.getMessage());
-                            Product product = new Product();
-                            product.setId(id);
-                            product.setName("Camara Kia");
-                            product.setPrice(500.0);
-                            return Optional.of(new Item(product, 10));
+                            return Mono.just(lastKnownGoodItem(id));
                         });
-
-        if (item.isPresent()) {
-            return ResponseEntity.ok(item.get());
-        }
-
-        return ResponseEntity
-                .status(404)
-                .body(
-                        Collections.singletonMap("message", "Item not found"));
     }
 
     @CircuitBreaker(name = "items", fallbackMethod = "getFallBackMethodProduct")
@@ -125,64 +156,69 @@ public class ItemController {
     @GetMapping("/details2/{id}")
     public CompletableFuture<?> detail3(@PathVariable Long id) {
 
-        return CompletableFuture.supplyAsync(() -> {
+        return productsBulkhead.supplyAsync(() -> {
             Optional<Item> item = itemService.findById(id);
 
             if (item.isPresent()) {
-                return CompletableFuture.completedFuture(ResponseEntity.ok(item.get()));
+                return ResponseEntity.ok(item.get());
             }
 
-            return CompletableFuture.completedFuture(
-                    ResponseEntity.status(404)
-                            .body(Collections.singletonMap("message", "Item not found")));
+            return ResponseEntity.status(404)
+                    .body(Collections.singletonMap("message", "Item not found"));
         });
     }
 
     public ResponseEntity<?> getFallBackMethodProduct(Long id, Throwable e) {
 
         logger.error("Error occurred in getFallBackMethodProduct: {}", e.getMessage());
-        Product product = new Product();
-        product.setId(id);
-        product.setName("Camara Sony - Fallback");
-        product.setPrice(700.0);
-        Item item = new Item(product, 15);
-
-        return ResponseEntity.ok(item);
+        return lastKnownGoodItem(id);
     }
 
     public CompletableFuture<?> getFallBackMethodProduct2(Long id, Throwable e) {
 
-        return CompletableFuture.supplyAsync(() -> {
-            logger.error("Error occurred in getFallBackMethodProduct: {}", e.getMessage());
-            Product product = new Product();
-            product.setId(id);
-            product.setName("Camara Sony - Fallback");
-            product.setPrice(700.0);
-            Item item = new Item(product, 15);
+        logger.error("Error occurred in getFallBackMethodProduct2: {}", e.getMessage());
+        return CompletableFuture.completedFuture(lastKnownGoodItem(id));
+    }
 
-            return ResponseEntity.ok(item);
-        });
+    private ResponseEntity<?> lastKnownGoodItem(Long id) {
+        return lastKnownGoodProducts.find(id)
+                .<ResponseEntity<?>>map(stale -> ResponseEntity.ok()
+                        .header(HttpHeaders.AGE, String.valueOf(
+                                Duration.between(stale.recordedAt(), Instant.now()).toSeconds()))
+                        .header(HttpHeaders.WARNING, "110 - \"Response is Stale\"")
+                        .body(new Item(stale.product(), 1)))
+                .orElseGet(() -> ResponseEntity
+                        .status(HttpStatus.SERVICE_UNAVAILABLE)
+                        .body(
+                                Collections.singletonMap("message", "Item temporarily unavailable")));
     }
 
     @PostMapping
     @ResponseStatus(code = HttpStatus.CREATED)
-    public Product create(@RequestBody Product product) {
+    public Mono<Product> create(@RequestBody Product product) {
         logger.info("Entering create method in ItemController with product: {}", product);
-        return itemService.save(product);
+        return reactiveItemService.save(product);
+    }
+
+    @PostMapping("/batch")
+    @ResponseStatus(code = HttpStatus.CREATED)
+    public Flux<Product> createAll(@RequestBody List<Product> products) {
+        logger.info("Entering createAll method in ItemController with {} products", products.size());
+        return reactiveItemService.saveAll(products);
     }
 
     @DeleteMapping("/{id}")
     @ResponseStatus(code = HttpStatus.NO_CONTENT)
-    public void delete(@PathVariable Long id) {
+    public Mono<Void> delete(@PathVariable Long id) {
         logger.info("Entering delete method in ItemController with id: {}", id);
-        itemService.delete(id);
+        return reactiveItemService.delete(id);
     }
 
     @PutMapping("/{id}")
     @ResponseStatus(code = HttpStatus.CREATED)
-    public Product update(@RequestBody Product product, @PathVariable Long id) {
+    public Mono<Product> update(@RequestBody Product product, @PathVariable Long id) {
         logger.info("Entering update method in ItemController with id: {} and product: {}", id, product);
-        return itemService.update(product, id);
+        return reactiveItemService.update(product, id);
     }
 
 }
@@ -0,0 +1,62 @@
+package com.sebastian.springcloud.msvc.items.loadbalancer;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Exponentially weighted moving average of the response time of one service
+ * instance, decayed by wall-clock time so old samples fade out even when the
+ * instance receives little traffic, plus the number of requests in flight.
+ */
+public class InstanceScore {
+
+    private final double decayNanos;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private double ewmaNanos;
+    private long lastUpdateNanos;
+
+    /**
+     * {@code initialEwmaNanos} stands in for the first samples, so an instance
+     * that was never measured does not look free next to measured ones.
+     */
+    public InstanceScore(long decayNanos, double initialEwmaNanos) {
+        this.decayNanos = decayNanos;
+        this.ewmaNanos = initialEwmaNanos;
+        this.lastUpdateNanos = System.nanoTime();
+    }
+
+    public void onStart() {
+        inFlight.incrementAndGet();
+    }
+
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    public synchronized void onComplete(long latencyNanos) {
+        release();
+        long now = System.nanoTime();
+        double weight = Math.exp(-(now - lastUpdateNanos) / decayNanos);
+        ewmaNanos = ewmaNanos * weight + latencyNanos * (1.0 - weight);
+        lastUpdateNanos = now;
+    }
+
+    public synchronized double getEwmaNanos() {
+        return ewmaNanos;
+    }
+
+    public double getEwmaMillis() {
+        return getEwmaNanos() / 1_000_000.0;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * Expected cost of sending one more request to this instance.
+     */
+    public double cost() {
+        return getEwmaMillis() * (getInFlight() + 1);
+    }
+
+}
@@ -0,0 +1,213 @@
+package com.sebastian.springcloud.msvc.items.loadbalancer;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.EmptyResponse;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.client.loadbalancer.TimedRequestContext;
+import org.springframework.cloud.loadbalancer.core.NoopServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Mono;
+
+/**
+ * Power-of-two-choices load balancer: picks two random instances and sends
+ * the request to the one with the lower {@link InstanceScore#cost()}. It is
+ * also registered as a {@link LoadBalancerLifecycle} so both the WebClient
+ * exchange filter and the Feign client report latencies back to it.
+ *
+ * <p>A new instance starts from the median latency of the measured ones, so
+ * it gets a fair share of traffic instead of all of it until its first
+ * responses come back. Instances that leave the list are forgotten along
+ * with their meters.
+ *
+ * <p>Requests carrying the {@link #HEDGE_GROUP_ATTRIBUTE} attribute share the
+ * instance picked for the first attempt, and later attempts avoid it.
+ */
+public class LatencyAwareLoadBalancer implements ReactorServiceInstanceLoadBalancer,
+        LoadBalancerLifecycle<Object, Object, ServiceInstance> {
+
+    public static final String HEDGE_GROUP_ATTRIBUTE = LatencyAwareLoadBalancer.class.getName() + ".hedgeGroup";
+
+    private final ObjectProvider<ServiceInstanceListSupplier> serviceInstanceListSupplierProvider;
+    private final String serviceId;
+    private final MeterRegistry meterRegistry;
+    private final long decayNanos;
+    private final long failurePenaltyNanos;
+    private final Map<String, InstanceScore> scores = new ConcurrentHashMap<>();
+    private final Map<String, List<Meter>> meters = new ConcurrentHashMap<>();
+
+    // The supplier hands out the same list until the registry changes, so departures are only looked for then
+    private volatile List<ServiceInstance> lastInstances;
+
+    public LatencyAwareLoadBalancer(ObjectProvider<ServiceInstanceListSupplier> serviceInstanceListSupplierProvider,
+            String serviceId, MeterRegistry meterRegistry, Duration decay, Duration failurePenalty) {
+        this.serviceInstanceListSupplierProvider = serviceInstanceListSupplierProvider;
+        this.serviceId = serviceId;
+        this.meterRegistry = meterRegistry;
+        this.decayNanos = decay.toNanos();
+        this.failurePenaltyNanos = failurePenalty.toNanos();
+    }
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public Mono<Response<ServiceInstance>> choose(Request request) {
+        ServiceInstanceListSupplier supplier = serviceInstanceListSupplierProvider
+                .getIfAvailable(NoopServiceInstanceListSupplier::new);
+        AtomicReference<String> hedgeGroup = hedgeGroup(request);
+        return supplier.get(request).next().map(instances -> {
+            forgetDeparted(instances);
+            Response<ServiceInstance> response = choose(instances, hedgeGroup.get());
+            if (response.hasServer()) {
+                hedgeGroup.compareAndSet(null, response.getServer().getInstanceId());
+            }
+            return response;
+        });
+    }
+
+    private Response<ServiceInstance> choose(List<ServiceInstance> instances, String excludedInstanceId) {
+        if (excludedInstanceId != null && instances.size() > 1) {
+            instances = instances.stream()
+                    .filter(instance -> !excludedInstanceId.equals(instance.getInstanceId()))
+                    .toList();
+        }
+        if (instances.isEmpty()) {
+            return new EmptyResponse();
+        }
+        if (instances.size() == 1) {
+            return new DefaultResponse(instances.get(0));
+        }
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(instances.size());
+        int second = random.nextInt(instances.size() - 1);
+        if (second >= first) {
+            second++;
+        }
+
+        ServiceInstance a = instances.get(first);
+        ServiceInstance b = instances.get(second);
+        return new DefaultResponse(score(a).cost() <= score(b).cost() ? a : b);
+    }
+
+    @Override
+    public void onStart(Request<Object> request) {
+    }
+
+    @Override
+    public void onStartRequest(Request<Object> request, Response<ServiceInstance> lbResponse) {
+        if (!lbResponse.hasServer()) {
+            return;
+        }
+        if (request.getContext() instanceof TimedRequestContext context) {
+            context.setRequestStartTime(System.nanoTime());
+        }
+        score(lbResponse.getServer()).onStart();
+    }
+
+    @Override
+    public void onComplete(CompletionContext<Object, ServiceInstance, Object> completionContext) {
+        Response<ServiceInstance> lbResponse = completionContext.getLoadBalancerResponse();
+        if (lbResponse == null || !lbResponse.hasServer()) {
+            return;
+        }
+
+        InstanceScore score = scores.get(lbResponse.getServer().getInstanceId());
+        if (score == null) {
+            // The instance left while the request was in flight
+            return;
+        }
+        if (completionContext.status() == CompletionContext.Status.DISCARD
+                || !(completionContext.getLoadBalancerRequest().getContext() instanceof TimedRequestContext context)) {
+            score.release();
+            return;
+        }
+
+        long latencyNanos = System.nanoTime() - context.getRequestStartTime();
+        if (completionContext.status() == CompletionContext.Status.FAILED) {
+            latencyNanos = Math.max(latencyNanos, failurePenaltyNanos);
+        }
+        score.onComplete(latencyNanos);
+    }
+
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    private AtomicReference<String> hedgeGroup(Request request) {
+        if (request.getContext() instanceof RequestDataContext context
+                && context.getClientRequest().getAttributes().get(HEDGE_GROUP_ATTRIBUTE) instanceof AtomicReference group) {
+            return group;
+        }
+        return new AtomicReference<>();
+    }
+
+    public Map<String, InstanceScore> getScores() {
+        return scores;
+    }
+
+    private InstanceScore score(ServiceInstance instance) {
+        InstanceScore score = scores.get(instance.getInstanceId());
+        if (score != null) {
+            return score;
+        }
+        double seedNanos = medianEwmaNanos();
+        return scores.computeIfAbsent(instance.getInstanceId(), instanceId -> {
+            InstanceScore created = new InstanceScore(decayNanos, seedNanos);
+            meters.put(instanceId, List.of(
+                    Gauge.builder("loadbalancer.instance.latency.ewma", created, InstanceScore::getEwmaMillis)
+                            .tag("serviceId", serviceId)
+                            .tag("instance", instanceId)
+                            .baseUnit("milliseconds")
+                            .register(meterRegistry),
+                    Gauge.builder("loadbalancer.instance.inflight", created, InstanceScore::getInFlight)
+                            .tag("serviceId", serviceId)
+                            .tag("instance", instanceId)
+                            .register(meterRegistry)));
+            return created;
+        });
+    }
+
+    // Zero while nothing has been measured, then every instance is probed alike
+    private double medianEwmaNanos() {
+        double[] measured = scores.values().stream()
+                .mapToDouble(InstanceScore::getEwmaNanos)
+                .filter(ewma -> ewma > 0)
+                .sorted()
+                .toArray();
+        return measured.length == 0 ? 0 : measured[measured.length / 2];
+    }
+
+    // An empty list is more likely a failed registry fetch than every instance gone, the scores are kept
+    private void forgetDeparted(List<ServiceInstance> instances) {
+        if (instances == lastInstances || instances.isEmpty()) {
+            return;
+        }
+        lastInstances = instances;
+        Set<String> present = instances.stream().map(ServiceInstance::getInstanceId).collect(Collectors.toSet());
+        for (String instanceId : scores.keySet()) {
+            if (!present.contains(instanceId) && scores.remove(instanceId) != null) {
+                List<Meter> gone = meters.remove(instanceId);
+                if (gone != null) {
+                    gone.forEach(meterRegistry::remove);
+                }
+            }
+        }
+    }
+
+}
@@ -0,0 +1,31 @@
+package com.sebastian.springcloud.msvc.items.loadbalancer;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Load balancer child context configuration for msvc-products. Deliberately
+ * not annotated with {@code @Configuration} so component scanning does not
+ * apply it to every load-balanced client.
+ */
+public class ProductsLoadBalancerConfig {
+
+    @Bean
+    LatencyAwareLoadBalancer latencyAwareLoadBalancer(Environment env,
+            LoadBalancerClientFactory loadBalancerClientFactory, MeterRegistry meterRegistry,
+            @Value("${config.items.loadbalancer.decay:10s}") Duration decay,
+            @Value("${config.items.loadbalancer.failure-penalty:2s}") Duration failurePenalty) {
+        String serviceId = env.getProperty(LoadBalancerClientFactory.PROPERTY_NAME);
+        return new LatencyAwareLoadBalancer(
+                loadBalancerClientFactory.getLazyProvider(serviceId, ServiceInstanceListSupplier.class),
+                serviceId, meterRegistry, decay, failurePenalty);
+    }
+
+}
@@ -0,0 +1,78 @@
+package com.sebastian.springcloud.msvc.items.resilience;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Runs blocking calls to one downstream service on the async executor while
+ * limiting how many of them may be in flight at once. Tasks that cannot get a
+ * permit within {@code maxWait} fail with {@link RejectedExecutionException}
+ * so the caller's fallback kicks in instead of piling up more waiters.
+ */
+public class DownstreamBulkhead {
+
+    private final String downstream;
+    private final Executor executor;
+    private final Semaphore permits;
+    private final Duration maxWait;
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger running = new AtomicInteger();
+    private final Counter rejected;
+
+    public DownstreamBulkhead(String downstream, Executor executor, int maxConcurrentCalls, Duration maxWait,
+            MeterRegistry meterRegistry) {
+        this.downstream = downstream;
+        this.executor = executor;
+        this.permits = new Semaphore(maxConcurrentCalls, true);
+        this.maxWait = maxWait;
+
+        Gauge.builder("items.bulkhead.queued", queued, AtomicInteger::get)
+                .tag("downstream", downstream)
+                .register(meterRegistry);
+        Gauge.builder("items.bulkhead.running", running, AtomicInteger::get)
+                .tag("downstream", downstream)
+                .register(meterRegistry);
+        this.rejected = Counter.builder("items.bulkhead.rejected")
+                .tag("downstream", downstream)
+                .register(meterRegistry);
+    }
+
+    public <T> CompletableFuture<T> supplyAsync(Supplier<T> supplier) {
+        queued.incrementAndGet();
+        return CompletableFuture.supplyAsync(() -> {
+            boolean acquired;
+            try {
+                acquired = permits.tryAcquire(maxWait.toNanos(), TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                acquired = false;
+            } finally {
+                queued.decrementAndGet();
+            }
+
+            if (!acquired) {
+                rejected.increment();
+                throw new RejectedExecutionException("Bulkhead for " + downstream + " is full");
+            }
+
+            running.incrementAndGet();
+            try {
+                return supplier.get();
+            } finally {
+                running.decrementAndGet();
+                permits.release();
+            }
+        }, executor);
+    }
+
+}
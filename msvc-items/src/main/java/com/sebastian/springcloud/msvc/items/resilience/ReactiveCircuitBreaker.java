@@ -0,0 +1,71 @@
+package com.sebastian.springcloud.msvc.items.resilience;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.springframework.stereotype.Component;
+
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.timelimiter.TimeLimiterRegistry;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Applies the resilience4j circuit breaker and time limiter instances declared
+ * in application.yml to reactive pipelines, so no thread is parked while the
+ * downstream call is in flight.
+ */
+@Component
+public class ReactiveCircuitBreaker {
+
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+    private final TimeLimiterRegistry timeLimiterRegistry;
+
+    public ReactiveCircuitBreaker(CircuitBreakerRegistry circuitBreakerRegistry,
+            TimeLimiterRegistry timeLimiterRegistry) {
+        this.circuitBreakerRegistry = circuitBreakerRegistry;
+        this.timeLimiterRegistry = timeLimiterRegistry;
+    }
+
+    public <T> Mono<T> run(String name, Mono<T> mono, Function<Throwable, Mono<T>> fallback) {
+        CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker(name);
+        Duration timeout = timeout(name);
+
+        return Mono.defer(() -> {
+            if (!circuitBreaker.tryAcquirePermission()) {
+                return Mono.error(CallNotPermittedException.createCallNotPermittedException(circuitBreaker));
+            }
+            long start = System.nanoTime();
+            return mono
+                    .timeout(timeout)
+                    .doOnSuccess(value -> circuitBreaker.onSuccess(System.nanoTime() - start, TimeUnit.NANOSECONDS))
+                    .doOnError(e -> circuitBreaker.onError(System.nanoTime() - start, TimeUnit.NANOSECONDS, e))
+                    .doOnCancel(circuitBreaker::releasePermission);
+        }).onErrorResume(fallback);
+    }
+
+    public <T> Flux<T> run(String name, Flux<T> flux, Function<Throwable, Flux<T>> fallback) {
+        CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker(name);
+        Duration timeout = timeout(name);
+
+        return Flux.defer(() -> {
+            if (!circuitBreaker.tryAcquirePermission()) {
+                return Flux.<T>error(CallNotPermittedException.createCallNotPermittedException(circuitBreaker));
+            }
+            long start = System.nanoTime();
+            return flux
+                    .timeout(timeout)
+                    .doOnComplete(() -> circuitBreaker.onSuccess(System.nanoTime() - start, TimeUnit.NANOSECONDS))
+                    .doOnError(e -> circuitBreaker.onError(System.nanoTime() - start, TimeUnit.NANOSECONDS, e))
+                    .doOnCancel(circuitBreaker::releasePermission);
+        }).onErrorResume(fallback);
+    }
+
+    private Duration timeout(String name) {
+        return timeLimiterRegistry.timeLimiter(name).getTimeLimiterConfig().getTimeoutDuration();
+    }
+
+}
@@ -1,30 +1,58 @@
 package com.sebastian.springcloud.msvc.items.services;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Random;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.util.MultiValueMap;
 
+import com.sebastian.libs.msvc.commons.concurrent.SingleFlight;
 import com.sebastian.libs.msvc.commons.entities.Product;
 import com.sebastian.springcloud.msvc.items.clients.ProductFeignClient;
+import com.sebastian.springcloud.msvc.items.clients.ProductPages;
 import com.sebastian.springcloud.msvc.items.models.Item;
 
 import feign.FeignException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 
 @Service
 public class ItemServiceFeign implements ItemService {
 
     private final ProductFeignClient productFeignClient;
+    private final SingleFlight<Long, Product> productLookups;
     private final Random random = new Random();
+    private final int pageSize;
 
-    public ItemServiceFeign(ProductFeignClient productFeignClient) {
+    public ItemServiceFeign(ProductFeignClient productFeignClient, MeterRegistry meterRegistry,
+            @Value("${config.items.products.page-size:200}") int pageSize) {
         this.productFeignClient = productFeignClient;
+        this.pageSize = pageSize;
+        Counter coalesced = Counter.builder("items.singleflight.coalesced")
+                .tag("flight", "msvc-products")
+                .register(meterRegistry);
+        this.productLookups = new SingleFlight<>((id, shared) -> coalesced.increment(shared));
     }
 
     @Override
     public List<Item> findAll() {
-        return productFeignClient.findAll()
+        // Follow the rel="next" links until the last page
+        List<Product> products = new ArrayList<>();
+        Map<String, String> query = ProductPages.first(null, pageSize).toSingleValueMap();
+        while (query != null) {
+            ResponseEntity<List<Product>> page = productFeignClient.findPage(query);
+            if (page.getBody() != null) {
+                products.addAll(page.getBody());
+            }
+            query = ProductPages.next(page.getHeaders()).map(MultiValueMap::toSingleValueMap).orElse(null);
+        }
+
+        return products
                 .stream()
                 .map(product -> {
                     int quantity = random.nextInt(10) + 1;
@@ -38,7 +66,7 @@ public class ItemServiceFeign implements ItemService {
         int quantity = random.nextInt(10) + 1;
 
         try {
-            Product product = productFeignClient.details(id);
+            Product product = productLookups.execute(id, () -> productFeignClient.details(id));
             return Optional.of(new Item(product, quantity));
         } catch (FeignException e) {
             return Optional.empty();
@@ -0,0 +1,79 @@
+package com.sebastian.springcloud.msvc.items.services;
+
+import java.util.List;
+import java.util.Random;
+
+import org.springframework.stereotype.Service;
+
+import com.sebastian.libs.msvc.commons.entities.Product;
+import com.sebastian.springcloud.msvc.items.clients.ProductCache;
+import com.sebastian.springcloud.msvc.items.clients.ProductReactiveClient;
+import com.sebastian.springcloud.msvc.items.models.Item;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Service
+public class ItemServiceReactive implements ReactiveItemService {
+
+    private final ProductReactiveClient productClient;
+    private final ProductCache productCache;
+    private final Random random = new Random();
+
+    public ItemServiceReactive(ProductReactiveClient productClient, ProductCache productCache) {
+        this.productClient = productClient;
+        this.productCache = productCache;
+    }
+
+    @Override
+    public Flux<Item> findAll(String name) {
+        return productCache.findAll(name)
+                .map(product -> {
+                    int quantity = random.nextInt(10) + 1;
+                    return new Item(product, quantity);
+                });
+    }
+
+    @Override
+    public Flux<Item> stream(String name) {
+        return productClient.streamAll(name)
+                .map(product -> {
+                    int quantity = random.nextInt(10) + 1;
+                    return new Item(product, quantity);
+                });
+    }
+
+    @Override
+    public Mono<Item> findById(Long id) {
+        return productCache.findById(id)
+                .map(product -> {
+                    int quantity = random.nextInt(10) + 1;
+                    return new Item(product, quantity);
+                });
+    }
+
+    @Override
+    public Mono<Product> save(Product product) {
+        return productClient.create(product)
+                .doOnSuccess(saved -> productCache.invalidateListings());
+    }
+
+    @Override
+    public Flux<Product> saveAll(List<Product> products) {
+        return productClient.createAll(products)
+                .doOnComplete(productCache::invalidateListings);
+    }
+
+    @Override
+    public Mono<Product> update(Product product, Long id) {
+        return productClient.update(product, id)
+                .doOnSuccess(updated -> productCache.invalidate(id));
+    }
+
+    @Override
+    public Mono<Void> delete(Long id) {
+        return productClient.delete(id)
+                .doOnSuccess(deleted -> productCache.invalidate(id));
+    }
+
+}
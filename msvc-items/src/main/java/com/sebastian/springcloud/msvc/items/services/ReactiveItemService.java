@@ -0,0 +1,21 @@
+package com.sebastian.springcloud.msvc.items.services;
+
+import java.util.List;
+
+import com.sebastian.libs.msvc.commons.entities.Product;
+import com.sebastian.springcloud.msvc.items.models.Item;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveItemService {
+
+    Flux<Item> findAll(String name);
+    Flux<Item> stream(String name);
+    Mono<Item> findById(Long id);
+    Mono<Product> save(Product product);
+    Flux<Product> saveAll(List<Product> products);
+    Mono<Product> update(Product product, Long id);
+    Mono<Void> delete(Long id);
+
+}
@@ -0,0 +1,78 @@
+package com.sebastian.springcloud.msvc.items.clients;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+class HedgedRequestsTests {
+
+	private static final Duration HEDGE_DELAY = Duration.ofMillis(100);
+
+	// A budget ratio of 1 pays for a hedge on every request
+	private final HedgedRequests hedgedRequests = new HedgedRequests(new SimpleMeterRegistry(), true, 0.95,
+			HEDGE_DELAY, 1.0);
+
+	@Test
+	void aHedgeThatFailsFastDoesNotBeatAPrimaryThatSucceedsLate() {
+		AtomicInteger attempts = new AtomicInteger();
+
+		StepVerifier.withVirtualTime(() -> hedgedRequests.hedge(hedgeGroup -> attempts.getAndIncrement() == 0
+				? Mono.delay(Duration.ofMillis(500)).thenReturn("primary")
+				: Mono.<String>error(new IllegalStateException("hedge"))))
+				.thenAwait(Duration.ofMillis(500))
+				.expectNext("primary")
+				.verifyComplete();
+		assertThat(attempts).hasValue(2);
+	}
+
+	@Test
+	void aPrimaryThatFailsLateDoesNotBeatAHedgeThatSucceeds() {
+		AtomicInteger attempts = new AtomicInteger();
+
+		StepVerifier.withVirtualTime(() -> hedgedRequests.hedge(hedgeGroup -> attempts.getAndIncrement() == 0
+				? Mono.delay(Duration.ofMillis(500)).then(Mono.<String>error(new IllegalStateException("primary")))
+				: Mono.just("hedge")))
+				.thenAwait(HEDGE_DELAY)
+				.expectNext("hedge")
+				.verifyComplete();
+	}
+
+	@Test
+	void whenBothFailThePrimaryErrorIsReported() {
+		AtomicInteger attempts = new AtomicInteger();
+
+		StepVerifier.withVirtualTime(() -> hedgedRequests.hedge(hedgeGroup -> attempts.getAndIncrement() == 0
+				? Mono.delay(Duration.ofMillis(500)).then(Mono.<String>error(new IllegalStateException("primary")))
+				: Mono.<String>error(new IllegalArgumentException("hedge"))))
+				.thenAwait(Duration.ofMillis(500))
+				.expectErrorMessage("primary")
+				.verify();
+	}
+
+	@Test
+	void noHedgeIsSentOnceThePrimaryHasFailed() {
+		AtomicInteger attempts = new AtomicInteger();
+
+		StepVerifier.withVirtualTime(() -> hedgedRequests.hedge(hedgeGroup -> {
+			attempts.incrementAndGet();
+			return Mono.<String>error(new IllegalStateException("primary"));
+		}))
+				.expectErrorMessage("primary")
+				.verify();
+		assertThat(attempts).hasValue(1);
+	}
+
+	@Test
+	void anEmptyPrimaryIsAnEmptyAnswer() {
+		StepVerifier.withVirtualTime(() -> hedgedRequests.hedge(hedgeGroup -> Mono.<String>empty()))
+				.verifyComplete();
+	}
+
+}
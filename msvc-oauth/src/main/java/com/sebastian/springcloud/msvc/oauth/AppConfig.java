@@ -1,12 +1,16 @@
 package com.sebastian.springcloud.msvc.oauth;
 
+import org.springframework.boot.web.codec.CodecCustomizer;
 import org.springframework.cloud.client.loadbalancer.reactive.ReactorLoadBalancerExchangeFilterFunction;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.reactive.function.client.WebClient;
 
+import com.sebastian.libs.msvc.commons.web.SmileCodecs;
+import com.sebastian.springcloud.msvc.oauth.security.UsersPasswordEncoder;
+
 @Configuration
 public class AppConfig {
 
@@ -19,10 +23,16 @@ public class AppConfig {
             .build();
     }
 
+    // msvc-users answers in Smile when asked (see UserService)
+    @Bean
+    CodecCustomizer smileCodecCustomizer(Jackson2ObjectMapperBuilder builder) {
+        return configurer -> configurer.defaultCodecs().jackson2SmileDecoder(SmileCodecs.decoder(builder));
+    }
+
 
     @Bean
-    PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    PasswordEncoder passwordEncoder(WebClient webClient) {
+        return new UsersPasswordEncoder(webClient);
     }
 
 }
@@ -1,90 +0,0 @@
-package com.sebastian.springcloud.msvc.oauth.models;
-
-import java.util.List;
-
-public class User {
-
-    private Long id;
-    private String username;
-    private String password;
-    private Boolean enabled;
-    private String email;
-    private boolean admin;   
-    private List<Role> roles;
-
-    public User() {
-    }
-
-    public User(String username, String password, Boolean enabled, String email) {
-        this.username = username;
-        this.password = password;
-        this.enabled = enabled;
-        this.email = email;
-    }
-
-    public Long getId() {
-        return id;
-    }
-
-    public void setId(Long id) {
-        this.id = id;
-    }
-
-    public String getUsername() {
-        return username;
-    }
-
-    public void setUsername(String username) {
-        this.username = username;
-    }
-
-    public String getPassword() {
-        return password;
-    }
-
-    public void setPassword(String password) {
-        this.password = password;
-    }
-
-    public Boolean getEnabled() {
-        return enabled;
-    }
-
-    public void setEnabled(Boolean enabled) {
-        this.enabled = enabled;
-    }
-
-    public String getEmail() {
-        return email;
-    }
-
-    public void setEmail(String email) {
-        this.email = email;
-    }
-
-    public List<Role> getRoles() {
-        return roles;
-    }
-
-    public void setRoles(List<Role> roles) {
-        this.roles = roles;
-    }
-
-    public boolean isAdmin() {
-        return admin;
-    }
-
-    public void setAdmin(boolean admin) {
-        this.admin = admin;
-    }
-
-    @Override
-    public String toString() {
-        return "User{" +
-                "id=" + id +
-                ", username='" + username + '\'' +
-                ", enabled=" + enabled +
-                ", email='" + email + '\'' +
-                '}';
-    }    
-}
@@ -0,0 +1,10 @@
+package com.sebastian.springcloud.msvc.oauth.models;
+
+import java.util.List;
+
+/**
+ * msvc-users' auth projection of a user: the password hash, whether the
+ * account is enabled and the role names.
+ */
+public record UserCredentials(String username, String password, boolean enabled, List<String> roles) {
+}
@@ -0,0 +1,87 @@
+package com.sebastian.springcloud.msvc.oauth.security;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.web.reactive.function.client.WebClient;
+
+/**
+ * BCrypt with the cost msvc-users currently hashes new passwords with
+ * ({@code GET /password-policy}, first read on the first login, so startup
+ * does not wait for msvc-users, and re-read every few minutes). A stored
+ * hash below that cost makes {@link #upgradeEncoding} true, and Spring Security
+ * then re-encodes the password after the successful login and hands it to
+ * {@code UserService.updatePassword}. Without msvc-users the last known
+ * cost (or BCrypt's default) is used and nothing gets upgraded.
+ */
+public class UsersPasswordEncoder implements PasswordEncoder {
+
+    private static final Pattern BCRYPT_COST = Pattern.compile("\\A\\$2(a|y|b)?\\$(\\d\\d)\\$");
+    private static final int DEFAULT_COST = 10;
+    private static final Duration POLICY_TTL = Duration.ofMinutes(5);
+
+    private final Logger logger = LoggerFactory.getLogger(UsersPasswordEncoder.class);
+    private final WebClient webClient;
+    private final BCryptPasswordEncoder verifier = new BCryptPasswordEncoder();
+
+    private volatile Policy policy = new Policy(DEFAULT_COST, false, 0L);
+
+    public UsersPasswordEncoder(WebClient webClient) {
+        this.webClient = webClient;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return new BCryptPasswordEncoder(policy().cost()).encode(rawPassword);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return verifier.matches(rawPassword, encodedPassword);
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        Policy current = policy();
+        if (!current.known() || encodedPassword == null) {
+            return false;
+        }
+        Matcher matcher = BCRYPT_COST.matcher(encodedPassword);
+        return matcher.find() && Integer.parseInt(matcher.group(2)) < current.cost();
+    }
+
+    private Policy policy() {
+        Policy current = policy;
+        if (System.nanoTime() - current.fetchedAt() < POLICY_TTL.toNanos() && current.fetchedAt() != 0L) {
+            return current;
+        }
+        try {
+            Map<String, Object> body = webClient.get()
+                    .uri("/password-policy")
+                    .accept(MediaType.APPLICATION_JSON)
+                    .retrieve()
+                    .bodyToMono(new ParameterizedTypeReference<Map<String, Object>>() {
+                    })
+                    .block(Duration.ofSeconds(2));
+            current = new Policy(((Number) body.get("cost")).intValue(), true, System.nanoTime());
+        } catch (RuntimeException e) {
+            logger.warn("Could not read the password policy from msvc-users: {}", e.getMessage());
+            // Retry after the TTL rather than on every login
+            current = new Policy(current.cost(), current.known(), System.nanoTime());
+        }
+        policy = current;
+        return current;
+    }
+
+    private record Policy(int cost, boolean known, long fetchedAt) {
+    }
+
+}
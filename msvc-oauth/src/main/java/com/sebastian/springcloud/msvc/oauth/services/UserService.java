@@ -11,26 +11,37 @@ import org.springframework.http.MediaType;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
 
-import com.sebastian.springcloud.msvc.oauth.models.User;
+import com.sebastian.libs.msvc.commons.concurrent.SingleFlight;
+import com.sebastian.libs.msvc.commons.web.SmileCodecs;
+import com.sebastian.springcloud.msvc.oauth.models.UserCredentials;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.tracing.Tracer;
 
 @Service
-public class UserService implements UserDetailsService {
+public class UserService implements UserDetailsService, UserDetailsPasswordService {
 
     private final Logger logger = LoggerFactory.getLogger(UserService.class);
     private WebClient webClient;
 
     private Tracer tracer;
 
-    public UserService(WebClient webClient, Tracer tracer) {
+    private final SingleFlight<String, UserCredentials> userLookups;
+
+    public UserService(WebClient webClient, Tracer tracer, MeterRegistry meterRegistry) {
         this.webClient = webClient;
         this.tracer = tracer;
+        Counter coalesced = Counter.builder("oauth.singleflight.coalesced")
+                .tag("flight", "msvc-users")
+                .register(meterRegistry);
+        this.userLookups = new SingleFlight<>((key, shared) -> coalesced.increment(shared));
     }
 
     @Override
@@ -42,31 +53,29 @@ public class UserService implements UserDetailsService {
         params.put("username", username);
 
         try {
-            User user = webClient
+            // Only what authentication needs, read by msvc-users in a single query
+            UserCredentials user = userLookups.execute(username, () -> webClient
                     .get()
-                    .uri("/users/{username}", params)
-                    .accept(MediaType.APPLICATION_JSON)
+                    .uri("/username/{username}/credentials", params)
+                    .accept(SmileCodecs.APPLICATION_SMILE, MediaType.APPLICATION_JSON)
                     .retrieve()
-                    .bodyToMono(User.class)
-                    .block();
+                    .bodyToMono(UserCredentials.class)
+                    .block());
 
-            logger.info("User retrieved: {}", user);
+            logger.info("User retrieved: {}", user.username());
             
-            List<GrantedAuthority> authorities = user.getRoles()
+            List<GrantedAuthority> authorities = user.roles()
                     .stream()
-                    .map(role -> new SimpleGrantedAuthority(role.getName()))
+                    .map(SimpleGrantedAuthority::new)
                     .collect(Collectors.toList());
             
             logger.info("User authorities: {}", authorities);
-            tracer.currentSpan().tag("user.username", user.getUsername());
+            tracer.currentSpan().tag("user.username", user.username());
 
             return org.springframework.security.core.userdetails.User.builder()
-                    .username(user.getUsername())
-                    .password(user.getPassword())
-                    .accountExpired(true)
-                    .accountLocked(true)
-                    .credentialsExpired(true)
-                    .disabled(true)
+                    .username(user.username())
+                    .password(user.password())
+                    .disabled(!user.enabled())
                     .authorities(authorities)
                     .build();
 
@@ -79,4 +88,36 @@ public class UserService implements UserDetailsService {
         }
     }
 
+    /**
+     * Called by Spring Security after a successful login whose stored hash is
+     * below msvc-users' password policy, with the password hashed again.
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+
+        logger.info("Upgrading the password hash of user: {}", user.getUsername());
+
+        Map<String, String> params = new HashMap<>();
+        params.put("username", user.getUsername());
+
+        try {
+            webClient
+                    .put()
+                    .uri("/username/{username}/password", params)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue(Map.of("password", newPassword))
+                    .retrieve()
+                    .toBodilessEntity()
+                    .block();
+        } catch (Exception e) {
+            // The login itself succeeded, the upgrade is retried on the next one
+            logger.warn("Could not upgrade the password hash of user {}: {}", user.getUsername(), e.getMessage());
+            return user;
+        }
+
+        return org.springframework.security.core.userdetails.User.withUserDetails(user)
+                .password(newPassword)
+                .build();
+    }
+
 }
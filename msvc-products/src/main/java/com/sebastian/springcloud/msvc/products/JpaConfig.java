@@ -0,0 +1,16 @@
+package com.sebastian.springcloud.msvc.products;
+
+import org.springframework.context.annotation.ComponentScan.Filter;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+
+// JPA refuses the R2DBC repositories that share the package, keep them out of its scan
+@Configuration
+@Profile("!reactive")
+@EnableJpaRepositories(excludeFilters = @Filter(type = FilterType.ASSIGNABLE_TYPE, classes = ReactiveCrudRepository.class))
+public class JpaConfig {
+
+}
@@ -0,0 +1,30 @@
+package com.sebastian.springcloud.msvc.products;
+
+import org.springframework.boot.web.codec.CodecCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+import com.sebastian.libs.msvc.commons.web.SmileCodecs;
+
+// application/x-jackson-smile next to JSON, for clients that ask for it; JSON stays first for everyone else.
+// The converter covers Spring MVC and Feign, the codecs WebFlux and WebClient
+@Configuration
+public class SmileConfig {
+
+    @Bean
+    MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return SmileCodecs.httpMessageConverter(builder);
+    }
+
+    @Bean
+    CodecCustomizer smileCodecCustomizer(Jackson2ObjectMapperBuilder encoderBuilder,
+            Jackson2ObjectMapperBuilder decoderBuilder) {
+        return configurer -> {
+            configurer.defaultCodecs().jackson2SmileEncoder(SmileCodecs.encoder(encoderBuilder));
+            configurer.defaultCodecs().jackson2SmileDecoder(SmileCodecs.decoder(decoderBuilder));
+        };
+    }
+
+}
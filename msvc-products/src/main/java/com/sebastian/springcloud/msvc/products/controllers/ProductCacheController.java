@@ -0,0 +1,45 @@
+package com.sebastian.springcloud.msvc.products.controllers;
+
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.sebastian.springcloud.msvc.products.services.ProductCacheInvalidator;
+
+@RestController
+@Profile("!reactive")
+@ConditionalOnProperty(name = "config.products.l2-cache.enabled", havingValue = "true")
+public class ProductCacheController {
+
+    private final Logger logger = LoggerFactory.getLogger(ProductCacheController.class);
+    private final ProductCacheInvalidator productCacheInvalidator;
+
+    public ProductCacheController(ProductCacheInvalidator productCacheInvalidator) {
+        this.productCacheInvalidator = productCacheInvalidator;
+    }
+
+    @PostMapping(ProductCacheInvalidator.EVICT_PATH)
+    public ResponseEntity<Void> evict(
+            @RequestHeader(name = ProductCacheInvalidator.TOKEN_HEADER, required = false) String token,
+            @RequestBody List<Long> ids) {
+
+        // The gateway refuses /api/products/internal/**, the token also keeps out callers inside the network
+        if (!productCacheInvalidator.isValidToken(token)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        logger.info("Evicting products {} from the second-level cache", ids);
+        productCacheInvalidator.evict(ids);
+        return ResponseEntity.noContent().build();
+    }
+
+}
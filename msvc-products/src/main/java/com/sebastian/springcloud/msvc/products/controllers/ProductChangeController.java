@@ -0,0 +1,86 @@
+package com.sebastian.springcloud.msvc.products.controllers;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.sebastian.springcloud.msvc.products.models.ProductChange;
+import com.sebastian.springcloud.msvc.products.repositories.ProductChangeFeed;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Ordered feed of product creates, updates and deletes, resumable from any
+ * sequence number. Consumers either long-poll {@code GET /changes?after=} or
+ * keep an SSE stream open, which resumes from {@code Last-Event-ID} after a
+ * reconnect. Serves both the servlet and the reactive profile.
+ */
+@RestController
+public class ProductChangeController {
+
+    private final Logger logger = LoggerFactory.getLogger(ProductChangeController.class);
+    private final ProductChangeFeed changeFeed;
+    private final Duration pollInterval;
+    private final Duration longPollTimeout;
+    private final int maxBatch;
+
+    public ProductChangeController(ProductChangeFeed changeFeed,
+            @Value("${config.products.changes.poll-interval:500ms}") Duration pollInterval,
+            @Value("${config.products.changes.long-poll-timeout:25s}") Duration longPollTimeout,
+            @Value("${config.products.changes.max-batch:500}") int maxBatch) {
+        this.changeFeed = changeFeed;
+        this.pollInterval = pollInterval;
+        this.longPollTimeout = longPollTimeout;
+        this.maxBatch = maxBatch;
+    }
+
+    @GetMapping("/changes")
+    public Mono<List<ProductChange>> poll(
+            @RequestParam(defaultValue = "0") long after,
+            @RequestParam(required = false) Integer limit) {
+
+        logger.info("Entering poll method in ProductChangeController with after: {}", after);
+
+        int batch = Math.max(1, Math.min(limit == null ? maxBatch : limit, maxBatch));
+        // Answers as soon as there is something past the cursor, or with an empty list at the timeout
+        return nextChanges(after, batch).timeout(longPollTimeout, Mono.just(List.of()));
+    }
+
+    @GetMapping(path = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<ProductChange>> stream(
+            @RequestParam(required = false) Long after,
+            @RequestHeader(name = "Last-Event-ID", required = false) Long lastEventId) {
+
+        logger.info("Entering stream method in ProductChangeController with after: {}, Last-Event-ID: {}",
+                after, lastEventId);
+
+        AtomicLong cursor = new AtomicLong(lastEventId != null ? lastEventId : after != null ? after : 0L);
+        return Mono.defer(() -> nextChanges(cursor.get(), maxBatch))
+                .doOnNext(changes -> cursor.set(changes.get(changes.size() - 1).seq()))
+                .repeat()
+                .concatMapIterable(changes -> changes)
+                .map(change -> ServerSentEvent.builder(change)
+                        .id(String.valueOf(change.seq()))
+                        .event(change.type().name())
+                        .build());
+    }
+
+    // Polls the table until there are changes past the cursor
+    private Mono<List<ProductChange>> nextChanges(long after, int limit) {
+        return Mono.defer(() -> changeFeed.findAfter(after, limit))
+                .filter(changes -> !changes.isEmpty())
+                .repeatWhenEmpty(attempts -> attempts.delayElements(pollInterval));
+    }
+
+}
@@ -3,38 +3,125 @@ package com.sebastian.springcloud.msvc.products.controllers;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.sebastian.libs.msvc.commons.entities.Product;
+import com.sebastian.libs.msvc.commons.web.ProductETags;
 import com.sebastian.springcloud.msvc.products.services.ProductService;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.TimeUnit;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 
 
 @RestController()
+@Profile("!reactive")
 public class ProductController {
 
     private final Logger logger = LoggerFactory.getLogger(ProductController.class);
     private final ProductService productService;
+    private final ObjectWriter productWriter;
+    private final int defaultPageSize;
+    private final int maxPageSize;
 
-    public ProductController(ProductService productService) {
+    public ProductController(ProductService productService, ObjectMapper objectMapper,
+            @Value("${config.products.page.default-size:50}") int defaultPageSize,
+            @Value("${config.products.page.max-size:200}") int maxPageSize) {
         this.productService = productService;
+        this.productWriter = objectMapper.writerFor(Product.class);
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
     }
 
     @GetMapping
-    public List<Product> list() {
-        logger.info("Entering list method in ProductController");
-        return productService.findAll();
+    public ResponseEntity<List<Product>> list(
+            @RequestParam(required = false) String name,
+            @RequestParam(required = false) Double minPrice,
+            @RequestParam(required = false) Double maxPrice,
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer size) {
+
+        logger.info("Entering list method in ProductController with name: {}, after: {}", name, after);
+
+        int pageSize = Math.max(1, Math.min(size == null ? defaultPageSize : size, maxPageSize));
+        List<Product> products = productService.findPage(after, name, minPrice, maxPrice, pageSize);
+
+        // A full page means there may be more rows: point the caller at the next cursor.
+        // With a matching If-None-Match Spring answers 304 from the ETag without writing the body.
+        // JSON and Smile share the tag, so caches must key on Accept too
+        if (products.size() == pageSize) {
+            String next = ServletUriComponentsBuilder.fromCurrentRequest()
+                    .replaceQueryParam("after", products.get(products.size() - 1).getId())
+                    .replaceQueryParam("size", pageSize)
+                    .toUriString();
+            return ResponseEntity.ok()
+                    .eTag(ProductETags.of(products)).varyBy(HttpHeaders.ACCEPT)
+                    .header(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"")
+                    .body(products);
+        }
+
+        return ResponseEntity.ok().eTag(ProductETags.of(products)).varyBy(HttpHeaders.ACCEPT).body(products);
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public StreamingResponseBody listNdjson(@RequestParam(required = false) String name) {
+        logger.info("Entering listNdjson method in ProductController with name: {}", name);
+        return out -> streamProducts(out, name, "", "\n");
+    }
+
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public StreamingResponseBody listEventStream(@RequestParam(required = false) String name) {
+        logger.info("Entering listEventStream method in ProductController with name: {}", name);
+        return out -> streamProducts(out, name, "data:", "\n\n");
+    }
+
+    private void streamProducts(OutputStream out, String name, String prefix, String suffix) {
+        byte[] prefixBytes = prefix.getBytes(StandardCharsets.UTF_8);
+        byte[] suffixBytes = suffix.getBytes(StandardCharsets.UTF_8);
+        productService.streamAll(name, product -> {
+            try {
+                out.write(prefixBytes);
+                out.write(productWriter.writeValueAsBytes(product));
+                out.write(suffixBytes);
+                out.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    @GetMapping("/batch")
+    public List<Product> batch(@RequestParam List<Long> ids) {
+        logger.info("Entering batch method in ProductController with ids: {}", ids);
+        // Bounded like a page, one call cannot ask for the whole table
+        if (ids.size() > maxPageSize) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "At most " + maxPageSize + " ids per batch");
+        }
+        return productService.findAllById(ids);
     }
 
     @GetMapping("/{id}")
@@ -53,7 +140,8 @@ public class ProductController {
         Optional<Product> productOptional = productService.findById(id);
 
         if (productOptional.isPresent()) {
-            return ResponseEntity.ok(productOptional.orElseThrow());
+            Product product = productOptional.orElseThrow();
+            return ResponseEntity.ok().eTag(ProductETags.of(product)).varyBy(HttpHeaders.ACCEPT).body(product);
         }
 
         return ResponseEntity.notFound().build();
@@ -62,17 +150,30 @@ public class ProductController {
     @PostMapping
     public ResponseEntity<Product> create(@RequestBody Product product) {
         logger.info("Entering create method in ProductController with product: {}", product);
+        // Ids come from products_seq; updates go through PUT /{id}
+        if (product.getId() != null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "A product to create must not have an id");
+        }
         Product savedProduct = productService.save(product);
         return ResponseEntity.status(HttpStatus.CREATED).body(savedProduct);
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<List<Product>> createAll(@RequestBody List<Product> products) {
+        logger.info("Entering createAll method in ProductController with {} products", products.size());
+        // Ids come from products_seq; a client-chosen one would be written as an update but logged as a create
+        if (products.stream().anyMatch(product -> product.getId() != null)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Products to create must not have an id");
+        }
+        List<Product> savedProducts = productService.saveAll(products);
+        return ResponseEntity.status(HttpStatus.CREATED).body(savedProducts);
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> delete(@PathVariable Long id) {     
         logger.info("Entering delete method in ProductController with id: {}", id);
-        Optional<Product> productOptional = productService.findById(id);
 
-        if (productOptional.isPresent()) {
-            productService.deleteById(id);   
+        if (productService.deleteById(id)) {
             return ResponseEntity.noContent().build();
         }
 
@@ -82,18 +183,20 @@ public class ProductController {
     @PutMapping("/{id}")
     public ResponseEntity<Product> update(@PathVariable Long id, @RequestBody Product product) {
         logger.info("Entering update method in ProductController with id: {} and product: {}", id, product);
-        Optional<Product> productOptional = productService.findById(id);
 
-        if (productOptional.isPresent()) {
-            Product existingProduct = productOptional.orElseThrow();
-            existingProduct.setName(product.getName());
-            existingProduct.setPrice(product.getPrice());
-            existingProduct.setCreateAt(product.getCreateAt());
-            Product updatedProduct = productService.save(existingProduct);
-            return ResponseEntity.ok(updatedProduct);
-        }
+        try {
+            Optional<Product> productOptional = productService.update(id, product);
 
-        return ResponseEntity.notFound().build();
+            if (productOptional.isPresent()) {
+                Product updatedProduct = productOptional.orElseThrow();
+                return ResponseEntity.ok().eTag(ProductETags.of(updatedProduct)).varyBy(HttpHeaders.ACCEPT).body(updatedProduct);
+            }
+
+            return ResponseEntity.notFound().build();
+        } catch (OptimisticLockingFailureException e) {
+            logger.info("Rejected update of product {}: {}", id, e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
     }
 
 
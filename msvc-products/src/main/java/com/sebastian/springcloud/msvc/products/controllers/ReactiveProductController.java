@@ -0,0 +1,169 @@
+package com.sebastian.springcloud.msvc.products.controllers;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import com.sebastian.libs.msvc.commons.entities.Product;
+import com.sebastian.libs.msvc.commons.web.ProductETags;
+import com.sebastian.springcloud.msvc.products.services.ReactiveProductService;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * WebFlux twin of {@link ProductController}, active with the {@code reactive}
+ * profile. Same paths, parameters and responses, backed by R2DBC.
+ */
+@RestController
+@Profile("reactive")
+public class ReactiveProductController {
+
+    private final Logger logger = LoggerFactory.getLogger(ReactiveProductController.class);
+    private final ReactiveProductService productService;
+    private final int defaultPageSize;
+    private final int maxPageSize;
+
+    public ReactiveProductController(ReactiveProductService productService,
+            @Value("${config.products.page.default-size:50}") int defaultPageSize,
+            @Value("${config.products.page.max-size:200}") int maxPageSize) {
+        this.productService = productService;
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
+    }
+
+    @GetMapping
+    public Mono<ResponseEntity<List<Product>>> list(
+            @RequestParam(required = false) String name,
+            @RequestParam(required = false) Double minPrice,
+            @RequestParam(required = false) Double maxPrice,
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer size,
+            ServerHttpRequest request) {
+
+        logger.info("Entering list method in ReactiveProductController with name: {}, after: {}", name, after);
+
+        int pageSize = Math.max(1, Math.min(size == null ? defaultPageSize : size, maxPageSize));
+        return productService.findPage(after, name, minPrice, maxPrice, pageSize)
+                .collectList()
+                .map(products -> {
+                    if (products.size() == pageSize) {
+                        String next = UriComponentsBuilder.fromUri(request.getURI())
+                                .replaceQueryParam("after", products.get(products.size() - 1).getId())
+                                .replaceQueryParam("size", pageSize)
+                                .toUriString();
+                        return ResponseEntity.ok()
+                                .eTag(ProductETags.of(products)).varyBy(HttpHeaders.ACCEPT)
+                                .header(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"")
+                                .body(products);
+                    }
+                    return ResponseEntity.ok().eTag(ProductETags.of(products)).varyBy(HttpHeaders.ACCEPT).body(products);
+                });
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Product> listNdjson(@RequestParam(required = false) String name) {
+        logger.info("Entering listNdjson method in ReactiveProductController with name: {}", name);
+        return productService.streamAll(name);
+    }
+
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<Product> listEventStream(@RequestParam(required = false) String name) {
+        logger.info("Entering listEventStream method in ReactiveProductController with name: {}", name);
+        return productService.streamAll(name);
+    }
+
+    @GetMapping("/batch")
+    public Flux<Product> batch(@RequestParam List<Long> ids) {
+        logger.info("Entering batch method in ReactiveProductController with ids: {}", ids);
+        // Bounded like a page, one call cannot ask for the whole table
+        if (ids.size() > maxPageSize) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "At most " + maxPageSize + " ids per batch");
+        }
+        return productService.findAllById(ids);
+    }
+
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<Product>> details(@PathVariable Long id) {
+
+        logger.info("Entering details method in ReactiveProductController with id: {}", id);
+
+        if (id.equals(10L)) {
+            return Mono.error(new IllegalStateException("Product not found"));
+        }
+
+        Mono<Product> product = productService.findById(id);
+        if (id.equals(7L)) {
+            product = product.delaySubscription(Duration.ofSeconds(3L));
+        }
+
+        return product
+                .map(found -> ResponseEntity.ok().eTag(ProductETags.of(found)).varyBy(HttpHeaders.ACCEPT).body(found))
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @PostMapping
+    public Mono<ResponseEntity<Product>> create(@RequestBody Product product) {
+        logger.info("Entering create method in ReactiveProductController with product: {}", product);
+        // Ids come from products_seq; updates go through PUT /{id}
+        if (product.getId() != null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "A product to create must not have an id");
+        }
+        return productService.save(product)
+                .map(savedProduct -> ResponseEntity.status(HttpStatus.CREATED).body(savedProduct));
+    }
+
+    @PostMapping("/batch")
+    @ResponseStatus(HttpStatus.CREATED)
+    public Flux<Product> createAll(@RequestBody List<Product> products) {
+        logger.info("Entering createAll method in ReactiveProductController with {} products", products.size());
+        // Ids come from products_seq; a client-chosen one would be written as an update but logged as a create
+        if (products.stream().anyMatch(product -> product.getId() != null)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Products to create must not have an id");
+        }
+        return productService.saveAll(products);
+    }
+
+    @DeleteMapping("/{id}")
+    public Mono<ResponseEntity<Void>> delete(@PathVariable Long id) {
+        logger.info("Entering delete method in ReactiveProductController with id: {}", id);
+        return productService.deleteById(id)
+                .map(deleted -> deleted
+                        ? ResponseEntity.noContent().<Void>build()
+                        : ResponseEntity.notFound().<Void>build());
+    }
+
+    @PutMapping("/{id}")
+    public Mono<ResponseEntity<Product>> update(@PathVariable Long id, @RequestBody Product product) {
+        logger.info("Entering update method in ReactiveProductController with id: {} and product: {}", id, product);
+        return productService.update(id, product)
+                .map(updated -> ResponseEntity.ok().eTag(ProductETags.of(updated)).varyBy(HttpHeaders.ACCEPT).body(updated))
+                .defaultIfEmpty(ResponseEntity.notFound().build())
+                .onErrorResume(OptimisticLockingFailureException.class, e -> {
+                    logger.info("Rejected update of product {}: {}", id, e.getMessage());
+                    return Mono.just(ResponseEntity.status(HttpStatus.CONFLICT).build());
+                });
+    }
+
+}
@@ -0,0 +1,16 @@
+package com.sebastian.springcloud.msvc.products.models;
+
+import java.time.Instant;
+
+/**
+ * One entry of the product change feed. {@code seq} orders the feed and is
+ * what consumers resume from; {@code version} is the product's version after
+ * the change (null for deletes).
+ */
+public record ProductChange(long seq, Long productId, Type type, Long version, Instant changedAt) {
+
+    public enum Type {
+        CREATED, UPDATED, DELETED
+    }
+
+}
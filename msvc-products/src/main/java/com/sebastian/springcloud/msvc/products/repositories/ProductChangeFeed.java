@@ -0,0 +1,43 @@
+package com.sebastian.springcloud.msvc.products.repositories;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.sebastian.springcloud.msvc.products.models.ProductChange;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Read side of the {@code product_changes} table, implemented over JDBC or
+ * R2DBC depending on the profile.
+ */
+public interface ProductChangeFeed {
+
+    Mono<List<ProductChange>> findAfter(long after, int limit);
+
+    /**
+     * AUTO_INCREMENT hands out {@code seq} at insert time, not at commit, so a
+     * transaction still in flight shows up as a gap that a later read would
+     * fill behind the consumer's cursor. Rows are returned only up to the first
+     * gap, unless the row after it changed before {@code settledBefore} and the
+     * gap is taken to be a rollback. {@code settledBefore} is the gap timeout
+     * subtracted from the database clock, the one {@code changed_at} is
+     * written with, read in the same query as the rows.
+     */
+    static List<ProductChange> contiguous(List<ProductChange> changes, long after, Instant settledBefore) {
+        List<ProductChange> contiguous = new ArrayList<>(changes.size());
+        long expected = after + 1;
+        for (ProductChange change : changes) {
+            // Reading from the start, whatever comes first is where the feed begins
+            boolean gap = change.seq() != expected && !(after == 0 && contiguous.isEmpty());
+            if (gap && !change.changedAt().isBefore(settledBefore)) {
+                break;
+            }
+            contiguous.add(change);
+            expected = change.seq() + 1;
+        }
+        return contiguous;
+    }
+
+}
@@ -0,0 +1,93 @@
+package com.sebastian.springcloud.msvc.products.repositories;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.stereotype.Repository;
+
+import com.sebastian.libs.msvc.commons.entities.Product;
+import com.sebastian.springcloud.msvc.products.models.ProductChange;
+
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * JDBC side of the change feed. {@link #record} runs on the connection of the
+ * surrounding JPA transaction, so a change is logged if and only if the write
+ * it describes commits.
+ */
+@Repository
+@Profile("!reactive")
+public class ProductChangeLog implements ProductChangeFeed {
+
+    static final String INSERT = "insert into product_changes (product_id, type, version) values (?, ?, ?)";
+    // settled_before: the database clock minus the gap timeout, the same clock changed_at is written with
+    static final String SELECT_AFTER = "select seq, product_id, type, version, changed_at,"
+            + " timestampadd(microsecond, ?, current_timestamp(3)) as settled_before from product_changes"
+            + " where seq > ? order by seq limit ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Duration gapTimeout;
+
+    public ProductChangeLog(JdbcTemplate jdbcTemplate,
+            @Value("${config.products.changes.gap-timeout:5s}") Duration gapTimeout) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.gapTimeout = gapTimeout;
+    }
+
+    public void record(ProductChange.Type type, Long productId, Long version) {
+        jdbcTemplate.update(INSERT, productId, type.name(), version);
+    }
+
+    public void record(ProductChange.Type type, List<Product> products) {
+        jdbcTemplate.batchUpdate(INSERT, products, products.size(), (statement, product) -> {
+            statement.setLong(1, product.getId());
+            statement.setString(2, type.name());
+            statement.setObject(3, product.getVersion(), Types.BIGINT);
+        });
+    }
+
+    /**
+     * Highest {@code seq} past which no gap can still be filled in, the
+     * cursor a reader of the feed can safely start from.
+     */
+    public long settledSeq() {
+        Long seq = jdbcTemplate.queryForObject("select coalesce(max(seq), 0) from product_changes"
+                + " where changed_at < timestampadd(microsecond, ?, current_timestamp(3))",
+                Long.class, -gapMicros());
+        return seq == null ? 0L : seq;
+    }
+
+    @Override
+    public Mono<List<ProductChange>> findAfter(long after, int limit) {
+        ResultSetExtractor<List<ProductChange>> contiguous = rs -> contiguous(rs, after);
+        return Mono.fromCallable(() -> jdbcTemplate.query(SELECT_AFTER, contiguous, -gapMicros(), after, limit))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private long gapMicros() {
+        return gapTimeout.toNanos() / 1000;
+    }
+
+    private static List<ProductChange> contiguous(ResultSet rs, long after) throws SQLException {
+        List<ProductChange> changes = new ArrayList<>();
+        Instant settledBefore = null;
+        while (rs.next()) {
+            changes.add(new ProductChange(rs.getLong("seq"), rs.getLong("product_id"),
+                    ProductChange.Type.valueOf(rs.getString("type")), rs.getObject("version", Long.class),
+                    rs.getTimestamp("changed_at").toInstant()));
+            settledBefore = rs.getTimestamp("settled_before").toInstant();
+        }
+        return ProductChangeFeed.contiguous(changes, after, settledBefore);
+    }
+
+}
@@ -0,0 +1,24 @@
+package com.sebastian.springcloud.msvc.products.repositories;
+
+/**
+ * Parameter values for the queries that {@link ProductRepository} and
+ * {@link ReactiveProductRepository} share.
+ */
+public final class ProductQueries {
+
+    private ProductQueries() {
+    }
+
+    /**
+     * The {@code :namePrefix} LIKE pattern of {@code findPage}: the name with
+     * its wildcards escaped by '!' (the queries' {@code escape '!'}) and a
+     * trailing '%'. Null for no filter.
+     */
+    public static String namePrefix(String name) {
+        if (name == null || name.isBlank()) {
+            return null;
+        }
+        return name.replace("!", "!!").replace("%", "!%").replace("_", "!_") + "%";
+    }
+
+}
@@ -1,10 +1,63 @@
 package com.sebastian.springcloud.msvc.products.repositories;
 
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 
 import com.sebastian.libs.msvc.commons.entities.Product;
 
+import jakarta.persistence.QueryHint;
+
+import static org.hibernate.jpa.HibernateHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
 
 public interface ProductRepository extends CrudRepository<Product, Long> {
 
+    // Integer.MIN_VALUE makes MySQL Connector/J stream rows instead of buffering the result set
+    @QueryHints({
+        @QueryHint(name = HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+        @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("""
+            select p from Product p
+            where :namePrefix is null or p.name like :namePrefix escape '!'
+            order by p.id""")
+    Stream<Product> streamAll(@Param("namePrefix") String namePrefix);
+
+    // Keyset page: seeks past the last id seen instead of skipping OFFSET rows.
+    // Backed by the primary key and the idx_products_name / idx_products_price indexes
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+    @Query("""
+            select p from Product p
+            where p.id > :after
+            and (:namePrefix is null or p.name like :namePrefix escape '!')
+            and (:minPrice is null or p.price >= :minPrice)
+            and (:maxPrice is null or p.price <= :maxPrice)
+            order by p.id""")
+    List<Product> findPage(@Param("after") Long after, @Param("namePrefix") String namePrefix,
+            @Param("minPrice") Double minPrice, @Param("maxPrice") Double maxPrice, Pageable pageable);
+
+    // Single-statement writes: the affected-row count tells whether the row existed (and had the expected version)
+    @Modifying
+    @Query("""
+            update Product p
+            set p.name = :name, p.price = :price, p.createAt = :createAt, p.version = p.version + 1
+            where p.id = :id
+            and (:version is null or p.version = :version)""")
+    int updateProduct(@Param("id") Long id, @Param("name") String name, @Param("price") Double price,
+            @Param("createAt") LocalDate createAt, @Param("version") Long version);
+
+    @Modifying
+    @Query("delete from Product p where p.id = :id")
+    int deleteProduct(@Param("id") Long id);
+
 }
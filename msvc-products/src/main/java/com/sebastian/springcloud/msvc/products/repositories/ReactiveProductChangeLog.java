@@ -0,0 +1,79 @@
+package com.sebastian.springcloud.msvc.products.repositories;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+
+import com.sebastian.libs.msvc.commons.entities.Product;
+import com.sebastian.springcloud.msvc.products.models.ProductChange;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * R2DBC twin of {@link ProductChangeLog}; records join the reactive
+ * transaction of the write.
+ */
+@Repository
+@Profile("reactive")
+public class ReactiveProductChangeLog implements ProductChangeFeed {
+
+    private final DatabaseClient databaseClient;
+    private final Duration gapTimeout;
+
+    public ReactiveProductChangeLog(DatabaseClient databaseClient,
+            @Value("${config.products.changes.gap-timeout:5s}") Duration gapTimeout) {
+        this.databaseClient = databaseClient;
+        this.gapTimeout = gapTimeout;
+    }
+
+    public Mono<Void> record(ProductChange.Type type, Long productId, Long version) {
+        DatabaseClient.GenericExecuteSpec insert = databaseClient
+                .sql("insert into product_changes (product_id, type, version) values (:productId, :type, :version)")
+                .bind("productId", productId)
+                .bind("type", type.name());
+        insert = version != null ? insert.bind("version", version) : insert.bindNull("version", Long.class);
+        return insert.then();
+    }
+
+    public Mono<Void> record(ProductChange.Type type, List<Product> products) {
+        return Flux.fromIterable(products)
+                .concatMap(product -> record(type, product.getId(), product.getVersion()))
+                .then();
+    }
+
+    @Override
+    public Mono<List<ProductChange>> findAfter(long after, int limit) {
+        // settled_before: the database clock minus the gap timeout, the same clock changed_at is written with
+        return databaseClient
+                .sql("select seq, product_id, type, version, changed_at,"
+                        + " timestampadd(microsecond, :gap, current_timestamp(3)) as settled_before from product_changes"
+                        + " where seq > :after order by seq limit :limit")
+                .bind("gap", -gapTimeout.toNanos() / 1000)
+                .bind("after", after)
+                .bind("limit", limit)
+                .map((row, metadata) -> Map.entry(
+                        new ProductChange(row.get("seq", Long.class), row.get("product_id", Long.class),
+                                ProductChange.Type.valueOf(row.get("type", String.class)), row.get("version", Long.class),
+                                toInstant(row.get("changed_at", LocalDateTime.class))),
+                        toInstant(row.get("settled_before", LocalDateTime.class))))
+                .all()
+                .collectList()
+                .map(rows -> ProductChangeFeed.contiguous(rows.stream().map(Map.Entry::getKey).toList(), after,
+                        rows.isEmpty() ? null : rows.get(0).getValue()));
+    }
+
+    // TIMESTAMP values come back in the connection's time zone; both are converted alike and only compared
+    private static Instant toInstant(LocalDateTime changedAt) {
+        return changedAt.atZone(ZoneId.systemDefault()).toInstant();
+    }
+
+}
@@ -0,0 +1,83 @@
+package com.sebastian.springcloud.msvc.products.repositories;
+
+import org.reactivestreams.Publisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.r2dbc.mapping.event.BeforeConvertCallback;
+import org.springframework.data.relational.core.sql.SqlIdentifier;
+import org.springframework.stereotype.Component;
+
+import com.sebastian.libs.msvc.commons.entities.Product;
+
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Hands out {@link Product} ids for R2DBC inserts from the same
+ * {@code products_seq} table and with the same pooled semantics as Hibernate
+ * in the JPA profile: reading {@code next_val = N} reserves ids
+ * {@code N - allocation + 1 .. N}. Both profiles can write to one database.
+ */
+@Component
+@Profile("reactive")
+public class ReactiveProductIdGenerator implements BeforeConvertCallback<Product> {
+
+    private final ConnectionFactory connectionFactory;
+
+    private long next;
+    private long hi;
+
+    public ReactiveProductIdGenerator(ConnectionFactory connectionFactory) {
+        this.connectionFactory = connectionFactory;
+    }
+
+    @Override
+    public Publisher<Product> onBeforeConvert(Product product, SqlIdentifier table) {
+        // New rows start at version 0, as Hibernate does for @Version
+        if (product.getVersion() == null) {
+            product.setVersion(0L);
+        }
+        if (product.getId() != null) {
+            return Mono.just(product);
+        }
+        return nextId().map(id -> {
+            product.setId(id);
+            return product;
+        });
+    }
+
+    private Mono<Long> nextId() {
+        synchronized (this) {
+            if (next > 0 && next <= hi) {
+                return Mono.just(next++);
+            }
+        }
+        return reserve().map(reserved -> {
+            synchronized (this) {
+                // Another caller may have refilled meanwhile; its block is used first and this one is dropped
+                if (next <= 0 || next > hi) {
+                    hi = reserved;
+                    next = Math.max(1, reserved - Product.ID_ALLOCATION_SIZE + 1);
+                }
+                return next++;
+            }
+        });
+    }
+
+    // Own connection in autocommit, like Hibernate's isolated work, so the row lock is not held by the caller's transaction
+    private Mono<Long> reserve() {
+        return Mono.usingWhen(connectionFactory.create(), connection -> Mono.from(connection
+                .createStatement("UPDATE products_seq SET next_val = LAST_INSERT_ID(next_val) + " + Product.ID_ALLOCATION_SIZE)
+                .execute())
+                .flatMap(result -> Mono.from(result.getRowsUpdated()))
+                .then(lastInsertId(connection)), Connection::close);
+    }
+
+    private Mono<Long> lastInsertId(Connection connection) {
+        return Flux.from(connection.createStatement("SELECT LAST_INSERT_ID()").execute())
+                .flatMap(result -> result.map((row, metadata) -> row.get(0, Long.class)))
+                .single();
+    }
+
+}
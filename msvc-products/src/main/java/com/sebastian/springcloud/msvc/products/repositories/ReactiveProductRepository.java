@@ -0,0 +1,43 @@
+package com.sebastian.springcloud.msvc.products.repositories;
+
+import java.time.LocalDate;
+
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.data.repository.query.Param;
+
+import com.sebastian.libs.msvc.commons.entities.Product;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+
+public interface ReactiveProductRepository extends R2dbcRepository<Product, Long> {
+
+    // Same keyset page as ProductRepository.findPage, in SQL for R2DBC
+    @Query("""
+            select * from products
+            where id > :after
+            and (:namePrefix is null or name like :namePrefix escape '!')
+            and (:minPrice is null or price >= :minPrice)
+            and (:maxPrice is null or price <= :maxPrice)
+            order by id
+            limit :size""")
+    Flux<Product> findPage(@Param("after") Long after, @Param("namePrefix") String namePrefix,
+            @Param("minPrice") Double minPrice, @Param("maxPrice") Double maxPrice, @Param("size") int size);
+
+    @Modifying
+    @Query("""
+            update products
+            set name = :name, price = :price, create_at = :createAt, version = version + 1
+            where id = :id
+            and (:version is null or version = :version)""")
+    Mono<Integer> updateProduct(@Param("id") Long id, @Param("name") String name, @Param("price") Double price,
+            @Param("createAt") LocalDate createAt, @Param("version") Long version);
+
+    @Modifying
+    @Query("delete from products where id = :id")
+    Mono<Integer> deleteProduct(@Param("id") Long id);
+
+}
@@ -0,0 +1,117 @@
+package com.sebastian.springcloud.msvc.products.services;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.hibernate.SessionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.cloud.client.serviceregistry.Registration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.client.RestClient;
+
+import com.sebastian.libs.msvc.commons.entities.Product;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Keeps the Hibernate second-level cache coherent across msvc-products
+ * replicas. Once a write commits, the changed ids are posted to every other
+ * instance registered in Eureka, which evicts them with {@link #evict}. This is
+ * best effort: an instance that misses a message keeps its copy until the
+ * region's expiry in {@code application.conf}. The evict endpoint is only
+ * reachable with the shared {@code invalidation-token}, which has no default.
+ */
+@Component
+@Profile("!reactive")
+@ConditionalOnProperty(name = "config.products.l2-cache.enabled", havingValue = "true")
+public class ProductCacheInvalidator {
+
+    public static final String EVICT_PATH = "/internal/l2-cache/evict";
+    public static final String TOKEN_HEADER = "X-Invalidation-Token";
+
+    private final Logger logger = LoggerFactory.getLogger(ProductCacheInvalidator.class);
+    private final EntityManagerFactory entityManagerFactory;
+    private final DiscoveryClient discoveryClient;
+    private final ObjectProvider<Registration> registration;
+    private final String serviceId;
+    private final String token;
+    private final RestClient restClient;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public ProductCacheInvalidator(EntityManagerFactory entityManagerFactory, DiscoveryClient discoveryClient,
+            ObjectProvider<Registration> registration, RestClient.Builder restClientBuilder,
+            @Value("${spring.application.name}") String serviceId,
+            @Value("${config.products.l2-cache.invalidation-token:}") String token) {
+        if (token.isBlank()) {
+            throw new IllegalStateException("config.products.l2-cache.enabled requires "
+                    + "config.products.l2-cache.invalidation-token (L2_CACHE_INVALIDATION_TOKEN)");
+        }
+        this.entityManagerFactory = entityManagerFactory;
+        this.discoveryClient = discoveryClient;
+        this.registration = registration;
+        this.serviceId = serviceId;
+        this.token = token;
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(Duration.ofSeconds(1));
+        requestFactory.setReadTimeout(Duration.ofSeconds(2));
+        this.restClient = restClientBuilder.requestFactory(requestFactory).build();
+    }
+
+    @TransactionalEventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        String self = registration.getIfAvailable() != null ? registration.getIfAvailable().getInstanceId() : null;
+        for (ServiceInstance instance : discoveryClient.getInstances(serviceId)) {
+            if (!instance.getInstanceId().equals(self)) {
+                executor.execute(() -> send(instance, event.ids()));
+            }
+        }
+    }
+
+    private void send(ServiceInstance instance, List<Long> ids) {
+        try {
+            restClient.post()
+                    .uri(instance.getUri().resolve(EVICT_PATH))
+                    .header(TOKEN_HEADER, token)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(ids)
+                    .retrieve()
+                    .toBodilessEntity();
+        } catch (RuntimeException e) {
+            logger.warn("Could not invalidate products {} on {}: {}", ids, instance.getInstanceId(), e.getMessage());
+        }
+    }
+
+    // Constant time, so the token cannot be guessed from response times
+    public boolean isValidToken(String candidate) {
+        return candidate != null && MessageDigest.isEqual(token.getBytes(StandardCharsets.UTF_8),
+                candidate.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public void evict(Collection<Long> ids) {
+        ids.forEach(id -> entityManagerFactory.getCache().evict(Product.class, id));
+        // Cached pages may contain the products, and their timestamps only move on local writes
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictQueryRegions();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+}
@@ -0,0 +1,10 @@
+package com.sebastian.springcloud.msvc.products.services;
+
+import java.util.List;
+
+/**
+ * Published by {@link ProductServiceImpl} inside the writing transaction for
+ * every product it creates, updates or deletes.
+ */
+public record ProductChangedEvent(List<Long> ids) {
+}
@@ -2,6 +2,7 @@ package com.sebastian.springcloud.msvc.products.services;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 import org.springframework.stereotype.Service;
 
@@ -11,12 +12,20 @@ import com.sebastian.libs.msvc.commons.entities.Product;
 @Service
 public interface ProductService {
 
-    List<Product> findAll();
+    List<Product> findPage(Long after, String name, Double minPrice, Double maxPrice, int size);
+
+    void streamAll(String name, Consumer<Product> consumer);
 
     Optional<Product> findById(Long id);
 
+    List<Product> findAllById(List<Long> ids);
+
     Product save(Product product);
 
-    void deleteById(Long id);
+    List<Product> saveAll(List<Product> products);
+
+    Optional<Product> update(Long id, Product product);
+
+    boolean deleteById(Long id);
 
 }
@@ -2,56 +2,167 @@ package com.sebastian.springcloud.msvc.products.services;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
 import org.springframework.core.env.Environment;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.sebastian.libs.msvc.commons.entities.Product;
+import com.sebastian.springcloud.msvc.products.models.ProductChange;
+import com.sebastian.springcloud.msvc.products.repositories.ProductChangeLog;
+import com.sebastian.springcloud.msvc.products.repositories.ProductQueries;
 import com.sebastian.springcloud.msvc.products.repositories.ProductRepository;
 
+import jakarta.persistence.EntityManager;
+
 @Service
+@Profile("!reactive")
 public class ProductServiceImpl implements ProductService {
 
     private final ProductRepository productRepository;
     private final Environment environment;
+    private final EntityManager entityManager;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ProductChangeLog changeLog;
+    private final int batchSize;
 
-    public ProductServiceImpl(ProductRepository productRepository, Environment env) {
+    public ProductServiceImpl(ProductRepository productRepository, Environment env, EntityManager entityManager,
+            ApplicationEventPublisher eventPublisher, ProductChangeLog changeLog,
+            @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}") int batchSize) {
         this.productRepository = productRepository;
         this.environment = env;
+        this.entityManager = entityManager;
+        this.eventPublisher = eventPublisher;
+        this.changeLog = changeLog;
+        this.batchSize = batchSize;
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<Product> findAll() {
-        return ((List<Product>) productRepository.findAll())
+    public List<Product> findPage(Long after, String name, Double minPrice, Double maxPrice, int size) {
+        int port = port();
+        return productRepository.findPage(after == null ? 0L : after, ProductQueries.namePrefix(name), minPrice, maxPrice,
+                PageRequest.ofSize(size))
         .stream()
         .map(product -> {
-            product.setPort(Integer.parseInt(environment.getProperty("local.server.port")));
+            product.setPort(port);
             return product;
         })
         .toList();
     }
 
+    private int port() {
+        return Integer.parseInt(environment.getProperty("local.server.port"));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamAll(String name, Consumer<Product> consumer) {
+        int port = port();
+        try (Stream<Product> products = productRepository.streamAll(ProductQueries.namePrefix(name))) {
+            products.forEach(product -> {
+                // Detach each row so the persistence context does not grow with the catalog
+                entityManager.detach(product);
+                product.setPort(port);
+                consumer.accept(product);
+            });
+        }
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Optional<Product> findById(Long id) {
         return productRepository.findById(id).map(product -> {
-            product.setPort(Integer.parseInt(environment.getProperty("local.server.port")));
+            product.setPort(port());
             return product;
         });
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public List<Product> findAllById(List<Long> ids) {
+        int port = port();
+        return ((List<Product>) productRepository.findAllById(ids))
+        .stream()
+        .map(product -> {
+            product.setPort(port);
+            return product;
+        })
+        .toList();
+    }
+
     @Override
     @Transactional
     public Product save(Product product) {
-        return productRepository.save(product);
+        Product savedProduct = productRepository.save(product);
+        changeLog.record(ProductChange.Type.CREATED, savedProduct.getId(), savedProduct.getVersion());
+        eventPublisher.publishEvent(new ProductChangedEvent(List.of(savedProduct.getId())));
+        return savedProduct;
+    }
+
+    @Override
+    @Transactional
+    public List<Product> saveAll(List<Product> products) {
+        for (int i = 0; i < products.size(); i++) {
+            entityManager.persist(products.get(i));
+            // Send each full JDBC batch and start over so the persistence context stays small
+            if ((i + 1) % batchSize == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        changeLog.record(ProductChange.Type.CREATED, products);
+        eventPublisher.publishEvent(new ProductChangedEvent(products.stream().map(Product::getId).toList()));
+        int port = port();
+        products.forEach(product -> product.setPort(port));
+        return products;
+    }
+
+    @Override
+    @Transactional
+    public Optional<Product> update(Long id, Product product) {
+        int updated = productRepository.updateProduct(id, product.getName(), product.getPrice(),
+                product.getCreateAt(), product.getVersion());
+
+        if (updated == 0) {
+            if (product.getVersion() != null && productRepository.existsById(id)) {
+                throw new OptimisticLockingFailureException(
+                        "Product " + id + " is no longer at version " + product.getVersion());
+            }
+            return Optional.empty();
+        }
+        eventPublisher.publishEvent(new ProductChangedEvent(List.of(id)));
+
+        Optional<Product> result;
+        if (product.getVersion() == null) {
+            // Unconditional update: only the database knows the new version
+            result = findById(id);
+        } else {
+            product.setId(id);
+            product.setVersion(product.getVersion() + 1);
+            product.setPort(port());
+            result = Optional.of(product);
+        }
+        changeLog.record(ProductChange.Type.UPDATED, id, result.map(Product::getVersion).orElse(null));
+        return result;
     }
 
     @Override
     @Transactional
-    public void deleteById(Long id) {
-        productRepository.deleteById(id);
+    public boolean deleteById(Long id) {
+        if (productRepository.deleteProduct(id) == 0) {
+            return false;
+        }
+        changeLog.record(ProductChange.Type.DELETED, id, null);
+        eventPublisher.publishEvent(new ProductChangedEvent(List.of(id)));
+        return true;
     }
 
 }
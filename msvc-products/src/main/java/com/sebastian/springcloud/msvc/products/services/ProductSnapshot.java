@@ -0,0 +1,176 @@
+package com.sebastian.springcloud.msvc.products.services;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import com.sebastian.libs.msvc.commons.entities.Product;
+
+/**
+ * Immutable, column-oriented copy of the catalog: one array per field, indexed
+ * by the position of the product's id in the sorted {@code ids} array. Lookups
+ * are a binary search and filtered pages a scan over primitive arrays, with no
+ * per-product objects kept alive. Changes produce a new snapshot through
+ * {@link #apply}; the old one stays valid for readers still holding it.
+ */
+public final class ProductSnapshot {
+
+    private static final int NO_DATE = Integer.MIN_VALUE;
+
+    private final long[] ids;
+    private final String[] names;
+    private final double[] prices;
+    private final int[] createAt;
+    private final long[] versions;
+    private final long footprintBytes;
+
+    private ProductSnapshot(long[] ids, String[] names, double[] prices, int[] createAt, long[] versions) {
+        this.ids = ids;
+        this.names = names;
+        this.prices = prices;
+        this.createAt = createAt;
+        this.versions = versions;
+        this.footprintBytes = estimateFootprint();
+    }
+
+    public static ProductSnapshot of(Collection<Product> products) {
+        return empty().apply(products, Set.of());
+    }
+
+    public static ProductSnapshot empty() {
+        return new ProductSnapshot(new long[0], new String[0], new double[0], new int[0], new long[0]);
+    }
+
+    /**
+     * New snapshot with {@code upserts} replacing or adding rows and
+     * {@code removed} ids dropped; a merge of two sorted runs, O(n + m log m).
+     */
+    public ProductSnapshot apply(Collection<Product> upserts, Set<Long> removed) {
+        List<Product> sorted = upserts.stream().sorted(Comparator.comparing(Product::getId)).toList();
+        int capacity = ids.length + sorted.size();
+        long[] newIds = new long[capacity];
+        String[] newNames = new String[capacity];
+        double[] newPrices = new double[capacity];
+        int[] newCreateAt = new int[capacity];
+        long[] newVersions = new long[capacity];
+
+        int size = 0;
+        int i = 0;
+        int j = 0;
+        while (i < ids.length || j < sorted.size()) {
+            long upsertId = j < sorted.size() ? sorted.get(j).getId() : Long.MAX_VALUE;
+            if (i < ids.length && (j == sorted.size() || ids[i] < upsertId)) {
+                if (!removed.contains(ids[i])) {
+                    newIds[size] = ids[i];
+                    newNames[size] = names[i];
+                    newPrices[size] = prices[i];
+                    newCreateAt[size] = createAt[i];
+                    newVersions[size] = versions[i];
+                    size++;
+                }
+                i++;
+                continue;
+            }
+            if (i < ids.length && ids[i] == upsertId) {
+                i++;
+            }
+            Product product = sorted.get(j++);
+            newIds[size] = product.getId();
+            newNames[size] = product.getName();
+            newPrices[size] = product.getPrice() == null ? Double.NaN : product.getPrice();
+            newCreateAt[size] = product.getCreateAt() == null ? NO_DATE : (int) product.getCreateAt().toEpochDay();
+            newVersions[size] = product.getVersion() == null ? 0L : product.getVersion();
+            size++;
+        }
+
+        return new ProductSnapshot(Arrays.copyOf(newIds, size), Arrays.copyOf(newNames, size),
+                Arrays.copyOf(newPrices, size), Arrays.copyOf(newCreateAt, size), Arrays.copyOf(newVersions, size));
+    }
+
+    public Optional<Product> findById(long id) {
+        int index = Arrays.binarySearch(ids, id);
+        return index < 0 ? Optional.empty() : Optional.of(product(index));
+    }
+
+    /**
+     * Same rows as {@code ProductRepository.findPage}: ids past {@code after},
+     * a case-insensitive name prefix (the column's collation is) and an
+     * inclusive price range; rows without a price never match a price filter.
+     */
+    public List<Product> findPage(long after, String name, Double minPrice, Double maxPrice, int size) {
+        String prefix = prefix(name);
+        int index = Arrays.binarySearch(ids, after);
+        index = index < 0 ? -index - 1 : index + 1;
+
+        Product[] page = new Product[Math.min(size, ids.length - index)];
+        int found = 0;
+        for (; index < ids.length && found < page.length; index++) {
+            if (!nameMatches(index, prefix)) {
+                continue;
+            }
+            if (minPrice != null && !(prices[index] >= minPrice)) {
+                continue;
+            }
+            if (maxPrice != null && !(prices[index] <= maxPrice)) {
+                continue;
+            }
+            page[found++] = product(index);
+        }
+        return Arrays.asList(Arrays.copyOf(page, found));
+    }
+
+    /** Every product in id order, only those whose name starts with {@code name} when it is given. */
+    public void forEach(String name, Consumer<Product> consumer) {
+        String prefix = prefix(name);
+        for (int index = 0; index < ids.length; index++) {
+            if (nameMatches(index, prefix)) {
+                consumer.accept(product(index));
+            }
+        }
+    }
+
+    private static String prefix(String name) {
+        return name == null || name.isBlank() ? null : name;
+    }
+
+    private boolean nameMatches(int index, String prefix) {
+        return prefix == null
+                || names[index] != null && names[index].regionMatches(true, 0, prefix, 0, prefix.length());
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    public long footprintBytes() {
+        return footprintBytes;
+    }
+
+    private Product product(int index) {
+        Product product = new Product();
+        product.setId(ids[index]);
+        product.setName(names[index]);
+        product.setPrice(Double.isNaN(prices[index]) ? null : prices[index]);
+        product.setCreateAt(createAt[index] == NO_DATE ? null : LocalDate.ofEpochDay(createAt[index]));
+        product.setVersion(versions[index]);
+        return product;
+    }
+
+    // Approximate retained size on a 64-bit JVM with compressed oops and compact strings
+    private long estimateFootprint() {
+        long bytes = 5 * 16L + ids.length * (8L + 4L + 8L + 4L + 8L);
+        for (String name : names) {
+            if (name != null) {
+                boolean latin1 = name.chars().allMatch(c -> c <= 0xFF);
+                bytes += 24 + 16 + (long) name.length() * (latin1 ? 1 : 2);
+            }
+        }
+        return bytes;
+    }
+
+}
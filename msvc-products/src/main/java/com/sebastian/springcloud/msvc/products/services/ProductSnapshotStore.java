@@ -0,0 +1,150 @@
+package com.sebastian.springcloud.msvc.products.services;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.sebastian.libs.msvc.commons.datasource.ReadReplicaRoutingDataSource;
+import com.sebastian.libs.msvc.commons.entities.Product;
+import com.sebastian.springcloud.msvc.products.models.ProductChange;
+import com.sebastian.springcloud.msvc.products.repositories.ProductChangeLog;
+import com.sebastian.springcloud.msvc.products.repositories.ProductRepository;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Holds the current {@link ProductSnapshot} of this replica. It is built in
+ * full once the application is ready and then kept up to date from the
+ * product change feed, which carries the writes of every replica; local
+ * writes are also applied as soon as they commit so a client reads its own
+ * writes. Until the first build completes {@link #current()} is empty and
+ * reads go to the database.
+ *
+ * <p>Rows are always read from the primary: a lagging read replica would
+ * hand back older state for a change the feed has already moved past.
+ */
+@Component
+@Profile("!reactive")
+@ConditionalOnProperty(name = "config.products.snapshot.enabled", havingValue = "true")
+public class ProductSnapshotStore {
+
+    private static final int LOAD_PAGE_SIZE = 1000;
+
+    private final Logger logger = LoggerFactory.getLogger(ProductSnapshotStore.class);
+    private final AtomicReference<ProductSnapshot> snapshot = new AtomicReference<>();
+    private final ProductRepository productRepository;
+    private final ProductChangeLog changeLog;
+    private final Duration pollInterval;
+    private final int maxBatch;
+
+    private volatile long cursor;
+    private Disposable tail;
+
+    public ProductSnapshotStore(ProductRepository productRepository, ProductChangeLog changeLog,
+            MeterRegistry meterRegistry,
+            @Value("${config.products.snapshot.poll-interval:1s}") Duration pollInterval,
+            @Value("${config.products.changes.max-batch:500}") int maxBatch) {
+        this.productRepository = productRepository;
+        this.changeLog = changeLog;
+        this.pollInterval = pollInterval;
+        this.maxBatch = maxBatch;
+
+        Gauge.builder("products.snapshot.size", this, store -> store.current().map(ProductSnapshot::size).orElse(0))
+                .description("Products held in the in-memory snapshot")
+                .register(meterRegistry);
+        Gauge.builder("products.snapshot.footprint", this,
+                store -> store.current().map(ProductSnapshot::footprintBytes).orElse(0L))
+                .description("Estimated heap retained by the in-memory snapshot")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    public Optional<ProductSnapshot> current() {
+        return Optional.ofNullable(snapshot.get());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        // Taken before reading the table: replaying changes the load already saw is harmless
+        cursor = changeLog.settledSeq();
+
+        List<Product> products = new ArrayList<>();
+        List<Product> page;
+        long after = 0L;
+        do {
+            long from = after;
+            page = ReadReplicaRoutingDataSource.readFromPrimary(() ->
+                    productRepository.findPage(from, null, null, null, PageRequest.ofSize(LOAD_PAGE_SIZE)));
+            products.addAll(page);
+            after = page.isEmpty() ? after : page.get(page.size() - 1).getId();
+        } while (page.size() == LOAD_PAGE_SIZE);
+
+        synchronized (this) {
+            snapshot.set(ProductSnapshot.of(products));
+        }
+        logger.info("Loaded product snapshot: {} products, ~{} bytes, feed cursor {}",
+                snapshot.get().size(), snapshot.get().footprintBytes(), cursor);
+
+        tail = Flux.interval(pollInterval, Schedulers.boundedElastic())
+                .onBackpressureDrop()
+                .concatMap(tick -> changeLog.findAfter(cursor, maxBatch)
+                        .filter(changes -> !changes.isEmpty())
+                        .doOnNext(this::applyChanges)
+                        .onErrorResume(e -> {
+                            logger.warn("Could not apply product changes after {}: {}", cursor, e.getMessage());
+                            return Mono.empty();
+                        }), 1)
+                .subscribe();
+    }
+
+    @TransactionalEventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        if (snapshot.get() != null) {
+            refresh(event.ids());
+        }
+    }
+
+    private void applyChanges(List<ProductChange> changes) {
+        refresh(changes.stream().map(ProductChange::productId).distinct().toList());
+        cursor = changes.get(changes.size() - 1).seq();
+    }
+
+    // Re-reads the rows under the lock, so two refreshes cannot swap in older state over newer
+    private synchronized void refresh(Collection<Long> ids) {
+        List<Product> current = new ArrayList<>();
+        ReadReplicaRoutingDataSource.readFromPrimary(() -> productRepository.findAllById(ids)).forEach(current::add);
+        Set<Long> removed = new HashSet<>(ids);
+        current.forEach(product -> removed.remove(product.getId()));
+        snapshot.set(snapshot.get().apply(current, removed));
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (tail != null) {
+            tail.dispose();
+        }
+    }
+
+}
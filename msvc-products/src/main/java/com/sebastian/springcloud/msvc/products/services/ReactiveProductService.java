@@ -0,0 +1,29 @@
+package com.sebastian.springcloud.msvc.products.services;
+
+import java.util.List;
+
+import com.sebastian.libs.msvc.commons.entities.Product;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+
+public interface ReactiveProductService {
+
+    Flux<Product> findPage(Long after, String name, Double minPrice, Double maxPrice, int size);
+
+    Flux<Product> streamAll(String name);
+
+    Mono<Product> findById(Long id);
+
+    Flux<Product> findAllById(List<Long> ids);
+
+    Mono<Product> save(Product product);
+
+    Flux<Product> saveAll(List<Product> products);
+
+    Mono<Product> update(Long id, Product product);
+
+    Mono<Boolean> deleteById(Long id);
+
+}
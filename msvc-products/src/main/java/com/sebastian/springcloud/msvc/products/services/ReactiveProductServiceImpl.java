@@ -0,0 +1,154 @@
+package com.sebastian.springcloud.msvc.products.services;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.sebastian.libs.msvc.commons.entities.Product;
+import com.sebastian.springcloud.msvc.products.models.ProductChange;
+import com.sebastian.springcloud.msvc.products.repositories.ProductQueries;
+import com.sebastian.springcloud.msvc.products.repositories.ReactiveProductChangeLog;
+import com.sebastian.springcloud.msvc.products.repositories.ReactiveProductRepository;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Service
+@Profile("reactive")
+public class ReactiveProductServiceImpl implements ReactiveProductService {
+
+    private final ReactiveProductRepository productRepository;
+    private final R2dbcEntityTemplate template;
+    private final Environment environment;
+    private final ReactiveProductChangeLog changeLog;
+    private final int fetchSize;
+
+    public ReactiveProductServiceImpl(ReactiveProductRepository productRepository, R2dbcEntityTemplate template,
+            Environment env, ReactiveProductChangeLog changeLog,
+            @Value("${config.products.stream.fetch-size:500}") int fetchSize) {
+        this.productRepository = productRepository;
+        this.template = template;
+        this.environment = env;
+        this.changeLog = changeLog;
+        this.fetchSize = fetchSize;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Flux<Product> findPage(Long after, String name, Double minPrice, Double maxPrice, int size) {
+        return withPort(productRepository.findPage(after == null ? 0L : after, ProductQueries.namePrefix(name),
+                minPrice, maxPrice, size));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Flux<Product> streamAll(String name) {
+        String namePrefix = ProductQueries.namePrefix(name);
+        DatabaseClient.GenericExecuteSpec query = namePrefix == null
+                ? template.getDatabaseClient().sql("select * from products order by id")
+                : template.getDatabaseClient()
+                        .sql("select * from products where name like :namePrefix escape '!' order by id")
+                        .bind("namePrefix", namePrefix);
+        // Rows are pulled from the server-side cursor fetchSize at a time, as the client demands them
+        return withPort(query
+                .filter((statement, next) -> next.execute(statement.fetchSize(fetchSize)))
+                .map((row, metadata) -> template.getConverter().read(Product.class, row, metadata))
+                .all());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Mono<Product> findById(Long id) {
+        return productRepository.findById(id).map(product -> {
+            product.setPort(port());
+            return product;
+        });
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Flux<Product> findAllById(List<Long> ids) {
+        return withPort(productRepository.findAllById(ids));
+    }
+
+    @Override
+    @Transactional
+    public Mono<Product> save(Product product) {
+        return productRepository.save(product)
+                .flatMap(saved -> changeLog.record(ProductChange.Type.CREATED, saved.getId(), saved.getVersion())
+                        .thenReturn(saved));
+    }
+
+    @Override
+    @Transactional
+    public Flux<Product> saveAll(List<Product> products) {
+        return withPort(productRepository.saveAll(products)
+                .collectList()
+                .flatMapMany(saved -> changeLog.record(ProductChange.Type.CREATED, saved)
+                        .thenMany(Flux.fromIterable(saved))));
+    }
+
+    @Override
+    @Transactional
+    public Mono<Product> update(Long id, Product product) {
+        return productRepository.updateProduct(id, product.getName(), product.getPrice(),
+                product.getCreateAt(), product.getVersion())
+                .flatMap(updated -> {
+                    if (updated == 0) {
+                        if (product.getVersion() == null) {
+                            return Mono.empty();
+                        }
+                        return productRepository.existsById(id)
+                                .flatMap(exists -> exists
+                                        ? Mono.error(new OptimisticLockingFailureException(
+                                                "Product " + id + " is no longer at version " + product.getVersion()))
+                                        : Mono.empty());
+                    }
+
+                    Mono<Product> result;
+                    if (product.getVersion() == null) {
+                        // Unconditional update: only the database knows the new version
+                        result = findById(id);
+                    } else {
+                        product.setId(id);
+                        product.setVersion(product.getVersion() + 1);
+                        product.setPort(port());
+                        result = Mono.just(product);
+                    }
+                    return result.flatMap(updatedProduct -> changeLog
+                            .record(ProductChange.Type.UPDATED, id, updatedProduct.getVersion())
+                            .thenReturn(updatedProduct));
+                });
+    }
+
+    @Override
+    @Transactional
+    public Mono<Boolean> deleteById(Long id) {
+        return productRepository.deleteProduct(id)
+                .flatMap(deleted -> deleted > 0
+                        ? changeLog.record(ProductChange.Type.DELETED, id, null).thenReturn(true)
+                        : Mono.just(false));
+    }
+
+    private Flux<Product> withPort(Flux<Product> products) {
+        return Flux.defer(() -> {
+            int port = port();
+            return products.map(product -> {
+                product.setPort(port);
+                return product;
+            });
+        });
+    }
+
+    private int port() {
+        return Integer.parseInt(environment.getProperty("local.server.port"));
+    }
+
+}
@@ -0,0 +1,112 @@
+package com.sebastian.springcloud.msvc.products.services;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+
+import com.sebastian.libs.msvc.commons.entities.Product;
+
+/**
+ * {@link ProductService} that answers reads from the replica's
+ * {@link ProductSnapshot} and hands writes to {@link ProductServiceImpl}.
+ */
+@Service
+@Primary
+@Profile("!reactive")
+@ConditionalOnProperty(name = "config.products.snapshot.enabled", havingValue = "true")
+public class SnapshotProductService implements ProductService {
+
+    private final ProductServiceImpl delegate;
+    private final ProductSnapshotStore snapshotStore;
+    private final Environment environment;
+
+    public SnapshotProductService(ProductServiceImpl delegate, ProductSnapshotStore snapshotStore,
+            Environment env) {
+        this.delegate = delegate;
+        this.snapshotStore = snapshotStore;
+        this.environment = env;
+    }
+
+    @Override
+    public List<Product> findPage(Long after, String name, Double minPrice, Double maxPrice, int size) {
+        return snapshotStore.current()
+                .map(snapshot -> withPort(snapshot.findPage(after == null ? 0L : after, name, minPrice, maxPrice, size)))
+                .orElseGet(() -> delegate.findPage(after, name, minPrice, maxPrice, size));
+    }
+
+    @Override
+    public void streamAll(String name, Consumer<Product> consumer) {
+        Optional<ProductSnapshot> snapshot = snapshotStore.current();
+        if (snapshot.isEmpty()) {
+            delegate.streamAll(name, consumer);
+            return;
+        }
+        int port = port();
+        snapshot.get().forEach(name, product -> {
+            product.setPort(port);
+            consumer.accept(product);
+        });
+    }
+
+    @Override
+    public Optional<Product> findById(Long id) {
+        Optional<ProductSnapshot> snapshot = snapshotStore.current();
+        if (snapshot.isEmpty()) {
+            return delegate.findById(id);
+        }
+        return snapshot.get().findById(id).map(product -> {
+            product.setPort(port());
+            return product;
+        });
+    }
+
+    @Override
+    public List<Product> findAllById(List<Long> ids) {
+        Optional<ProductSnapshot> snapshot = snapshotStore.current();
+        if (snapshot.isEmpty()) {
+            return delegate.findAllById(ids);
+        }
+        return withPort(ids.stream()
+                .distinct()
+                .map(id -> snapshot.get().findById(id))
+                .flatMap(Optional::stream)
+                .toList());
+    }
+
+    @Override
+    public Product save(Product product) {
+        return delegate.save(product);
+    }
+
+    @Override
+    public List<Product> saveAll(List<Product> products) {
+        return delegate.saveAll(products);
+    }
+
+    @Override
+    public Optional<Product> update(Long id, Product product) {
+        return delegate.update(id, product);
+    }
+
+    @Override
+    public boolean deleteById(Long id) {
+        return delegate.deleteById(id);
+    }
+
+    private List<Product> withPort(List<Product> products) {
+        int port = port();
+        products.forEach(product -> product.setPort(port));
+        return products;
+    }
+
+    private int port() {
+        return Integer.parseInt(environment.getProperty("local.server.port"));
+    }
+
+}
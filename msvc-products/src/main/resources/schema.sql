@@ -0,0 +1,47 @@
+-- MySQL Schema for Products Table
+-- Database: db_springboot_cloud
+
+CREATE TABLE IF NOT EXISTS products (
+    id BIGINT PRIMARY KEY,
+    name VARCHAR(255),
+    price DOUBLE,
+    create_at DATE,
+    version BIGINT NOT NULL DEFAULT 0,
+    INDEX idx_products_name (name),
+    INDEX idx_products_price (price)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- Sequence emulation for the pooled id generator (MySQL has no sequences).
+-- Seeded one allocation past the existing ids
+CREATE TABLE IF NOT EXISTS products_seq (
+    next_val BIGINT
+) ENGINE=InnoDB;
+
+INSERT INTO products_seq (next_val)
+SELECT COALESCE(MAX(id), 0) + 50 FROM products
+WHERE NOT EXISTS (SELECT 1 FROM products_seq);
+
+-- Change feed, written in the same transaction as the product row it describes
+CREATE TABLE IF NOT EXISTS product_changes (
+    seq BIGINT AUTO_INCREMENT PRIMARY KEY,
+    product_id BIGINT NOT NULL,
+    type VARCHAR(10) NOT NULL,
+    version BIGINT,
+    changed_at TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3)
+) ENGINE=InnoDB;
+
+-- Existing databases: re-run this script for products_seq and product_changes, then
+-- ALTER TABLE products ADD INDEX idx_products_name (name), ADD INDEX idx_products_price (price);
+-- ALTER TABLE products ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+
+-- Comments for documentation
+-- id: Primary key, listings page on it with WHERE id > :after ORDER BY id
+-- idx_products_name: serves the name prefix filter (name LIKE 'abc%'), InnoDB appends id to it
+-- idx_products_price: serves the minPrice / maxPrice range filters
+-- version: optimistic lock, bumped by every UPDATE; a PUT carrying a stale version gets 409
+-- products_seq.next_val: a read of N reserves ids N-49..N (Product.ID_ALLOCATION_SIZE = 50) and moves it
+--   to N+50, so one round trip to the table serves a whole JDBC batch of inserts
+-- Existing databases: ALTER TABLE products MODIFY id BIGINT NOT NULL; then run the products_seq statements
+-- product_changes.seq: feed position, consumers resume with ?after=<seq> or Last-Event-ID; readers stop
+--   at a gap in seq (a transaction not committed yet) until it is config.products.changes.gap-timeout old
+-- product_changes.type: CREATED, UPDATED or DELETED; version is the product's version after the change
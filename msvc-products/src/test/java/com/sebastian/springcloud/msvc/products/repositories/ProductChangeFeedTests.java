@@ -0,0 +1,53 @@
+package com.sebastian.springcloud.msvc.products.repositories;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.sebastian.springcloud.msvc.products.models.ProductChange;
+
+class ProductChangeFeedTests {
+
+	private static final Instant SETTLED_BEFORE = Instant.parse("2026-01-01T00:00:05Z");
+	private static final Instant SETTLED = SETTLED_BEFORE.minusMillis(1);
+	private static final Instant RECENT = SETTLED_BEFORE;
+
+	@Test
+	void fromTheStartTheFirstRowIsWhereTheFeedBegins() {
+		List<ProductChange> changes = List.of(change(5, RECENT), change(6, RECENT), change(8, RECENT));
+
+		assertThat(seqs(ProductChangeFeed.contiguous(changes, 0L, SETTLED_BEFORE))).containsExactly(5L, 6L);
+	}
+
+	@Test
+	void stopsAtAGapThatMayStillBeFilled() {
+		List<ProductChange> changes = List.of(change(6, RECENT), change(7, RECENT));
+
+		assertThat(ProductChangeFeed.contiguous(changes, 4L, SETTLED_BEFORE)).isEmpty();
+	}
+
+	@Test
+	void skipsAGapOnceTheRowAfterItHasSettled() {
+		List<ProductChange> changes = List.of(change(5, SETTLED), change(7, SETTLED), change(8, RECENT),
+				change(10, RECENT));
+
+		assertThat(seqs(ProductChangeFeed.contiguous(changes, 4L, SETTLED_BEFORE))).containsExactly(5L, 7L, 8L);
+	}
+
+	@Test
+	void noRowsNoChanges() {
+		assertThat(ProductChangeFeed.contiguous(List.of(), 4L, null)).isEmpty();
+	}
+
+	private static ProductChange change(long seq, Instant changedAt) {
+		return new ProductChange(seq, seq * 10, ProductChange.Type.UPDATED, 1L, changedAt);
+	}
+
+	private static List<Long> seqs(List<ProductChange> changes) {
+		return changes.stream().map(ProductChange::seq).toList();
+	}
+
+}
@@ -0,0 +1,44 @@
+package com.sebastian.springcloud.msvc.users;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import com.sebastian.libs.msvc.commons.datasource.ReadReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+
+// Read-only transactions go to config.users.read-replicas.urls, the rest to spring.datasource
+@Configuration
+@ConditionalOnProperty(name = "config.users.read-replicas.enabled", havingValue = "true")
+public class ReadReplicaConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    @Primary
+    ReadReplicaRoutingDataSource dataSource(HikariDataSource primaryDataSource,
+            @Value("${config.users.read-replicas.urls}") List<String> replicaUrls,
+            @Value("${config.users.read-replicas.sticky-window:2s}") Duration stickyWindow) {
+        return ReadReplicaRoutingDataSource.of(primaryDataSource, replicaUrls, stickyWindow);
+    }
+
+    // Routing is decided per transaction, so Hibernate must not hold a connection across them
+    @Bean
+    HibernatePropertiesCustomizer releaseConnectionsAfterTransaction() {
+        return properties -> properties.put("hibernate.connection.handling_mode",
+                "DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION");
+    }
+
+}
@@ -0,0 +1,19 @@
+package com.sebastian.springcloud.msvc.users;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+import com.sebastian.libs.msvc.commons.web.SmileCodecs;
+
+// Serves application/x-jackson-smile to clients that ask for it; JSON stays first for everyone else
+@Configuration
+public class SmileConfig {
+
+    @Bean
+    MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return SmileCodecs.httpMessageConverter(builder);
+    }
+
+}
@@ -1,10 +1,14 @@
 package com.sebastian.springcloud.msvc.users.controllers;
 
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -13,25 +17,56 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import com.sebastian.springcloud.msvc.users.entities.User;
+import com.sebastian.springcloud.msvc.users.models.UserSummary;
 import com.sebastian.springcloud.msvc.users.services.IUserService;
+import com.sebastian.springcloud.msvc.users.services.PasswordHashingService;
+import com.sebastian.springcloud.msvc.users.services.PasswordPolicy;
 
 @RestController
 public class UserController {
 
     private final Logger logger = org.slf4j.LoggerFactory.getLogger(UserController.class);
     private final IUserService userService;
+    private final PasswordHashingService passwordHashingService;
+    private final int defaultPageSize;
+    private final int maxPageSize;
 
-    public UserController(IUserService userService) {
+    public UserController(IUserService userService, PasswordHashingService passwordHashingService,
+            @Value("${config.users.page.default-size:50}") int defaultPageSize,
+            @Value("${config.users.page.max-size:200}") int maxPageSize) {
         this.userService = userService;
+        this.passwordHashingService = passwordHashingService;
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
     }
 
     @GetMapping
-    public List<User> list() {
-        logger.info("Entering list method in UserController");
-        return userService.findAll();
+    public ResponseEntity<List<UserSummary>> list(
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer size) {
+
+        logger.info("Entering list method in UserController with after: {}", after);
+
+        int pageSize = Math.max(1, Math.min(size == null ? defaultPageSize : size, maxPageSize));
+        List<UserSummary> users = userService.findPage(after, pageSize);
+
+        // A full page means there may be more rows: point the caller at the next cursor
+        if (users.size() == pageSize) {
+            String next = ServletUriComponentsBuilder.fromCurrentRequest()
+                    .replaceQueryParam("after", users.get(users.size() - 1).id())
+                    .replaceQueryParam("size", pageSize)
+                    .toUriString();
+            return ResponseEntity.ok()
+                    .header(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"")
+                    .body(users);
+        }
+
+        return ResponseEntity.ok(users);
     }
 
     @GetMapping("/{id}")
@@ -52,6 +87,16 @@ public class UserController {
                         .body(Collections.singletonMap("message", "User not found with username: " + username)));
     }
 
+    // For msvc-oauth: a flat projection read in one statement instead of the entity and its roles
+    @GetMapping("/username/{username}/credentials")
+    public ResponseEntity<?> credentials(@PathVariable String username) {
+        logger.info("Entering credentials method in UserController with username: {}", username);
+        return userService.findCredentials(username)
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body(Collections.singletonMap("message", "User not found with username: " + username)));
+    }
+
     @GetMapping("/email/{email}")
     public ResponseEntity<?> findByEmail(@PathVariable String email) {
         logger.info("Entering findByEmail method in UserController with email: {}", email);
@@ -61,6 +106,28 @@ public class UserController {
                         .body(Collections.singletonMap("message", "User not found with email: " + email)));
     }
 
+    // For signup forms: whether each given username/email is still free, mostly answered without a query
+    @GetMapping("/availability")
+    public ResponseEntity<?> availability(
+            @RequestParam(required = false) String username,
+            @RequestParam(required = false) String email) {
+
+        logger.info("Entering availability method in UserController with username: {}, email: {}", username, email);
+        if (username == null && email == null) {
+            return ResponseEntity.badRequest()
+                    .body(Collections.singletonMap("message", "Give a username, an email or both"));
+        }
+
+        Map<String, Boolean> available = new LinkedHashMap<>();
+        if (username != null) {
+            available.put("username", !userService.existsByUsername(username));
+        }
+        if (email != null) {
+            available.put("email", !userService.existsByEmail(email));
+        }
+        return ResponseEntity.ok(available);
+    }
+
     @PostMapping
     public ResponseEntity<?> create(@RequestBody User user) {         
         logger.info("Entering create method in UserController with user: {}", user);
@@ -92,4 +159,27 @@ public class UserController {
                 .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND)
                         .body(Collections.singletonMap("message", "User not found with id: " + id)));
     }
+
+    @GetMapping("/password-policy")
+    public PasswordPolicy passwordPolicy() {
+        return passwordHashingService.policy();
+    }
+
+    // msvc-oauth stores a stronger hash here after a login with a password below the policy.
+    // Internal only: the gateway refuses /api/users/username/**
+    @PutMapping("/username/{username}/password")
+    public ResponseEntity<?> updatePasswordHash(@PathVariable String username, @RequestBody Map<String, String> body) {
+        logger.info("Entering updatePasswordHash method in UserController with username: {}", username);
+        String passwordHash = body.get("password");
+        if (!passwordHashingService.isCurrent(passwordHash)) {
+            return ResponseEntity.badRequest()
+                    .body(Collections.singletonMap("message", "Not a hash that meets the password policy"));
+        }
+        if (!userService.updatePasswordHash(username, passwordHash)) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Collections.singletonMap("message", "User not found with username: " + username));
+        }
+        return ResponseEntity.noContent().build();
+    }
+
 }
@@ -0,0 +1,10 @@
+package com.sebastian.springcloud.msvc.users.models;
+
+import java.util.List;
+
+/**
+ * What msvc-oauth needs to authenticate a user and nothing more: the
+ * password hash, whether the account is enabled and the role names.
+ */
+public record UserCredentials(String username, String password, boolean enabled, List<String> roles) {
+}
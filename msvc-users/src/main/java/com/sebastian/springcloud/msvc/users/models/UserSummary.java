@@ -0,0 +1,19 @@
+package com.sebastian.springcloud.msvc.users.models;
+
+import java.util.List;
+
+/**
+ * A user as shown in list views: no password hash, roles by name only.
+ */
+public record UserSummary(Long id, String username, String email, Boolean enabled, List<String> roles) {
+
+    // Used by the JPQL constructor expression, the roles are read in a second query
+    public UserSummary(Long id, String username, String email, Boolean enabled) {
+        this(id, username, email, enabled, List.of());
+    }
+
+    public UserSummary withRoles(List<String> roles) {
+        return new UserSummary(id, username, email, enabled, List.copyOf(roles));
+    }
+
+}
@@ -1,20 +1,62 @@
 package com.sebastian.springcloud.msvc.users.repositories;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.sebastian.springcloud.msvc.users.entities.User;
+import com.sebastian.springcloud.msvc.users.models.UserSummary;
 
 @Repository
 public interface UserRepository extends CrudRepository<User, Long> {
 
+    @Override
+    @EntityGraph(attributePaths = "roles")
+    Optional<User> findById(Long id);
+
+    @EntityGraph(attributePaths = "roles")
     Optional<User> findByUsername(String username);
 
+    @EntityGraph(attributePaths = "roles")
     Optional<User> findByEmail(String email);
 
+    // SimpleJpaRepository's: a unique constraint violation is raised here, not at commit after the service returns
+    <S extends User> S saveAndFlush(S user);
+
     boolean existsByUsername(String username);
 
     boolean existsByEmail(String email);
+
+    // Keyset page: seeks past the last id seen instead of skipping OFFSET rows
+    @Query("""
+            select new com.sebastian.springcloud.msvc.users.models.UserSummary(u.id, u.username, u.email, u.enabled)
+            from User u
+            where u.id > :after
+            order by u.id""")
+    List<UserSummary> findSummaryPage(@Param("after") Long after, Pageable pageable);
+
+    // One row per role (one with a null role for a user without any), all in a single statement
+    @Query("""
+            select u.username, u.password, u.enabled, r.name from User u left join u.roles r
+            where u.username = :username
+            order by r.id""")
+    List<Object[]> findCredentialRows(@Param("username") String username);
+
+    // (id, username, email) in id order, read in pages to fill the availability filters
+    @Query("select u.id, u.username, u.email from User u where u.id > :after order by u.id")
+    List<Object[]> findNamesAfter(@Param("after") Long after, Pageable pageable);
+
+    // The roles of a whole page in one statement; a fetch join with a row limit would be paged in memory
+    @Query("""
+            select u.id, r.name from User u join u.roles r
+            where u.id in :userIds
+            order by r.id""")
+    List<Object[]> findRoleNames(@Param("userIds") Collection<Long> userIds);
 }
@@ -0,0 +1,319 @@
+package com.sebastian.springcloud.msvc.users.services;
+
+import java.text.Normalizer;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.sebastian.libs.msvc.commons.datasource.ReadReplicaRoutingDataSource;
+import com.sebastian.springcloud.msvc.users.entities.User;
+import com.sebastian.springcloud.msvc.users.repositories.UserRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Bloom filters of the usernames and emails in the users table, so that most
+ * "is this taken?" questions are answered as "no" without a query. A hit is
+ * only a maybe and is confirmed against the database.
+ *
+ * <p>The filters are built when the application is ready, sized from the
+ * table count with room to grow, and rebuilt once that room is used up, once
+ * deletes have left too many stale entries behind (a Bloom filter cannot
+ * forget), and every {@code rebuild-interval}. Local writes are added as they
+ * happen; rows written by other replicas are picked up every
+ * {@code refresh-interval} by reading the rows past the highest id seen,
+ * starting {@code refresh-overlap} ids further back: ids are taken before
+ * commit, so a row can show up below ids that were already read. The unique
+ * constraints on the table stay the final guard for a row later than that.
+ * These reads go to the primary, a lagging read replica would leave rows out
+ * of the filters for good.
+ *
+ * <p>Lookups go through a coarse key (letters and digits only, accents and
+ * case folded), so every name the case- and accent-insensitive column
+ * collation treats as equal maps to the same key.
+ */
+@Component
+public class AvailabilityFilter {
+
+    private record Filters(BloomFilter usernames, BloomFilter emails, long capacity) {
+    }
+
+    private final Logger logger = LoggerFactory.getLogger(AvailabilityFilter.class);
+    private final UserRepository userRepository;
+    private final ScheduledExecutorService executor;
+    private final double fpp;
+    private final double growthFactor;
+    private final long minCapacity;
+    private final int loadBatchSize;
+    private final long refreshOverlap;
+    private final Duration refreshInterval;
+    private final Duration rebuildInterval;
+
+    private final AtomicLong entries = new AtomicLong();
+    private final AtomicLong removedSinceBuild = new AtomicLong();
+    private final AtomicBoolean rebuildScheduled = new AtomicBoolean();
+    private final Counter usernameAbsent;
+    private final Counter usernameFalsePositive;
+    private final Counter usernamePresent;
+    private final Counter emailAbsent;
+    private final Counter emailFalsePositive;
+    private final Counter emailPresent;
+
+    // Only replaced on the executor thread; lookups before the first build go to the database
+    private volatile Filters filters;
+    private volatile Filters building;
+    private volatile long lastSeenId;
+
+    public AvailabilityFilter(UserRepository userRepository, MeterRegistry meterRegistry,
+            @Value("${config.users.availability-filter.fpp:0.01}") double fpp,
+            @Value("${config.users.availability-filter.growth-factor:2}") double growthFactor,
+            @Value("${config.users.availability-filter.min-capacity:10000}") long minCapacity,
+            @Value("${config.users.availability-filter.load-batch-size:5000}") int loadBatchSize,
+            @Value("${config.users.availability-filter.refresh-overlap:1000}") long refreshOverlap,
+            @Value("${config.users.availability-filter.refresh-interval:5s}") Duration refreshInterval,
+            @Value("${config.users.availability-filter.rebuild-interval:1h}") Duration rebuildInterval) {
+        this.userRepository = userRepository;
+        this.fpp = fpp;
+        this.growthFactor = growthFactor;
+        this.minCapacity = minCapacity;
+        this.loadBatchSize = loadBatchSize;
+        this.refreshOverlap = refreshOverlap;
+        this.refreshInterval = refreshInterval;
+        this.rebuildInterval = rebuildInterval;
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "availability-filter");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        this.usernameAbsent = lookups(meterRegistry, "username", "absent");
+        this.usernameFalsePositive = lookups(meterRegistry, "username", "false_positive");
+        this.usernamePresent = lookups(meterRegistry, "username", "present");
+        this.emailAbsent = lookups(meterRegistry, "email", "absent");
+        this.emailFalsePositive = lookups(meterRegistry, "email", "false_positive");
+        this.emailPresent = lookups(meterRegistry, "email", "present");
+
+        gauges(meterRegistry, "username", Filters::usernames, usernameAbsent, usernameFalsePositive);
+        gauges(meterRegistry, "email", Filters::emails, emailAbsent, emailFalsePositive);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        executor.execute(this::rebuild);
+        executor.scheduleWithFixedDelay(this::refresh, refreshInterval.toMillis(), refreshInterval.toMillis(),
+                TimeUnit.MILLISECONDS);
+        executor.scheduleWithFixedDelay(this::rebuild, rebuildInterval.toMillis(), rebuildInterval.toMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    public boolean usernameExists(String username) {
+        Filters current = filters;
+        return exists(current == null ? null : current.usernames(), username, userRepository::existsByUsername,
+                usernameAbsent, usernameFalsePositive, usernamePresent);
+    }
+
+    public boolean emailExists(String email) {
+        Filters current = filters;
+        return exists(current == null ? null : current.emails(), email, userRepository::existsByEmail,
+                emailAbsent, emailFalsePositive, emailPresent);
+    }
+
+    /**
+     * Records a username and email that are now taken. They are added right
+     * away and again once the transaction commits, which covers a rebuild
+     * that read the table before the commit.
+     */
+    public void added(User user) {
+        String username = key(user.getUsername());
+        String email = key(user.getEmail());
+        put(username, email);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    put(username, email);
+                }
+            });
+        }
+    }
+
+    /**
+     * Records a deleted user; its entries stay in the filters until the next
+     * rebuild. Counted once the transaction commits, so that the rebuild it
+     * may start no longer reads the row.
+     */
+    public void removed() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    countRemoved();
+                }
+            });
+        } else {
+            countRemoved();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private boolean exists(BloomFilter filter, String value, Predicate<String> database,
+            Counter absent, Counter falsePositive, Counter present) {
+        if (value == null) {
+            return false;
+        }
+        if (filter != null && !filter.mightContain(key(value))) {
+            absent.increment();
+            return false;
+        }
+        boolean exists = database.test(value);
+        if (filter != null) {
+            (exists ? present : falsePositive).increment();
+        }
+        return exists;
+    }
+
+    private void countRemoved() {
+        if (filters != null && removedSinceBuild.incrementAndGet() > entries.get() / 10) {
+            scheduleRebuild();
+        }
+    }
+
+    private void scheduleRebuild() {
+        if (rebuildScheduled.compareAndSet(false, true)) {
+            executor.execute(this::rebuild);
+        }
+    }
+
+    // Runs on the executor thread only
+    private void rebuild() {
+        rebuildScheduled.set(false);
+        try {
+            long count = ReadReplicaRoutingDataSource.readFromPrimary(userRepository::count);
+            long capacity = Math.max(minCapacity, (long) (count * growthFactor));
+            Filters next = new Filters(BloomFilter.create(capacity, fpp), BloomFilter.create(capacity, fpp), capacity);
+
+            // Writes made while the table is read go into the new filters too
+            building = next;
+            long seen = load(next, 0L, 0L);
+            filters = next;
+            building = null;
+            lastSeenId = seen;
+            entries.set(count);
+            removedSinceBuild.set(0);
+            logger.info("Availability filters built from {} users, capacity {}, {} bytes each",
+                    count, capacity, next.usernames().sizeInBytes());
+        } catch (RuntimeException e) {
+            building = null;
+            logger.warn("Could not build the availability filters: {}", e.getMessage());
+        }
+    }
+
+    // Runs on the executor thread only
+    private void refresh() {
+        Filters current = filters;
+        if (current == null) {
+            return;
+        }
+        try {
+            long seen = lastSeenId;
+            lastSeenId = load(current, Math.max(0L, seen - refreshOverlap), seen);
+        } catch (RuntimeException e) {
+            logger.warn("Could not refresh the availability filters: {}", e.getMessage());
+        }
+    }
+
+    // Keyset pages of (id, username, email) past the given id, returns the highest id read or seen.
+    // Every new row, local or not, passes through here once past seen, so this is where the fill is counted
+    private long load(Filters target, long after, long seen) {
+        List<Object[]> rows;
+        do {
+            long from = after;
+            rows = ReadReplicaRoutingDataSource.readFromPrimary(() ->
+                    userRepository.findNamesAfter(from, PageRequest.ofSize(loadBatchSize)));
+            for (Object[] row : rows) {
+                after = (Long) row[0];
+                target.usernames().put(key((String) row[1]));
+                target.emails().put(key((String) row[2]));
+                if (after > seen && target == filters && entries.incrementAndGet() > target.capacity()) {
+                    scheduleRebuild();
+                }
+            }
+        } while (rows.size() == loadBatchSize);
+        return Math.max(after, seen);
+    }
+
+    // building before filters: a rebuild publishes its filters before it stops building, so no write falls between
+    private void put(String username, String email) {
+        for (Filters target : new Filters[] { building, filters }) {
+            if (target != null) {
+                target.usernames().put(username);
+                target.emails().put(email);
+            }
+        }
+    }
+
+    static String key(String value) {
+        String folded = Normalizer.normalize(value, Normalizer.Form.NFKD)
+                .toLowerCase(Locale.ROOT)
+                .replace("ß", "ss");
+        StringBuilder key = new StringBuilder(folded.length());
+        folded.codePoints().filter(Character::isLetterOrDigit).forEach(key::appendCodePoint);
+        return key.toString();
+    }
+
+    private static Counter lookups(MeterRegistry meterRegistry, String field, String outcome) {
+        return Counter.builder("users.availability.filter.lookups")
+                .description("Availability lookups by what the filter answered: absent (no query), "
+                        + "false_positive or present (confirmed by a query)")
+                .tag("field", field)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private void gauges(MeterRegistry meterRegistry, String field,
+            Function<Filters, BloomFilter> filter, Counter absent, Counter falsePositive) {
+        Gauge.builder("users.availability.filter.memory", this,
+                        self -> self.filters == null ? 0 : filter.apply(self.filters).sizeInBytes())
+                .description("Memory held by the filter")
+                .baseUnit("bytes")
+                .tag("field", field)
+                .register(meterRegistry);
+        Gauge.builder("users.availability.filter.expected.fpp", this,
+                        self -> self.filters == null ? Double.NaN : filter.apply(self.filters).expectedFpp())
+                .description("False positive rate expected from how full the filter is")
+                .tag("field", field)
+                .register(meterRegistry);
+        Gauge.builder("users.availability.filter.observed.fpp", this, self -> {
+                    double negatives = absent.count() + falsePositive.count();
+                    return negatives == 0 ? Double.NaN : falsePositive.count() / negatives;
+                })
+                .description("Share of names not in the table that the filter still reported as maybe present")
+                .tag("field", field)
+                .register(meterRegistry);
+    }
+
+}
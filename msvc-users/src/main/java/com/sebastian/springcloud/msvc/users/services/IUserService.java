@@ -4,10 +4,12 @@ import java.util.List;
 import java.util.Optional;
 
 import com.sebastian.springcloud.msvc.users.entities.User;
+import com.sebastian.springcloud.msvc.users.models.UserCredentials;
+import com.sebastian.springcloud.msvc.users.models.UserSummary;
 
 public interface IUserService {
 
-    List<User> findAll();
+    List<UserSummary> findPage(Long after, int size);
 
     Optional<User> findById(Long id);
 
@@ -15,6 +17,8 @@ public interface IUserService {
 
     Optional<User> findByEmail(String email);
 
+    Optional<UserCredentials> findCredentials(String username);
+
     Optional<User> update(User user, Long id);
 
     User save(User user);
@@ -24,4 +28,6 @@ public interface IUserService {
     boolean existsByUsername(String username);
 
     boolean existsByEmail(String email);
+
+    boolean updatePasswordHash(String username, String passwordHash);
 }
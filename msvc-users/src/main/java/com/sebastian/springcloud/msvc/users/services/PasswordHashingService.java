@@ -0,0 +1,181 @@
+package com.sebastian.springcloud.msvc.users.services;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * The {@link PasswordEncoder} of msvc-users. BCrypt runs on a pool with one
+ * thread per core and a bounded queue, so a signup burst costs at most all
+ * cores and anything beyond the queue is turned away with a 503 instead of
+ * piling up threads that all fight for the CPU.
+ *
+ * <p>The BCrypt cost is {@code config.users.password.cost}, one setting
+ * shared by every replica: msvc-users both publishes it as the policy
+ * msvc-oauth upgrades logins to and checks the upgraded hashes against it, so
+ * replicas must agree on it. At startup one hash at the minimum cost is timed
+ * and the highest cost that fits {@code config.users.password.target-latency}
+ * on this hardware is logged as a recommendation; it is never applied.
+ */
+@Service
+public class PasswordHashingService implements PasswordEncoder {
+
+    // Same as BCryptPasswordEncoder's
+    private static final Pattern BCRYPT = Pattern.compile("\\A\\$2(a|y|b)?\\$(\\d\\d)\\$[./0-9A-Za-z]{53}");
+
+    private final Logger logger = LoggerFactory.getLogger(PasswordHashingService.class);
+    private final ThreadPoolExecutor executor;
+    private final Duration maxWait;
+    private final Timer hashTimer;
+    private final Counter rejected;
+    private final int cost;
+    private final BCryptPasswordEncoder encoder;
+
+    public PasswordHashingService(MeterRegistry meterRegistry,
+            @Value("${config.users.password.cost:12}") int cost,
+            @Value("${config.users.password.min-cost:10}") int minCost,
+            @Value("${config.users.password.max-cost:14}") int maxCost,
+            @Value("${config.users.password.target-latency:250ms}") Duration targetLatency,
+            @Value("${config.users.password.queue-capacity:100}") int queueCapacity,
+            @Value("${config.users.password.max-wait:5s}") Duration maxWait) {
+
+        int threads = Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.maxWait = maxWait;
+
+        this.cost = cost;
+        recommendCost(minCost, maxCost, targetLatency);
+        this.encoder = new BCryptPasswordEncoder(cost);
+        logger.info("Password hashing: BCrypt cost {}, {} threads, queue of {}", cost, threads, queueCapacity);
+
+        Gauge.builder("users.password.hashing.queue", executor, pool -> pool.getQueue().size())
+                .description("Password hashes waiting for a hashing thread")
+                .register(meterRegistry);
+        Gauge.builder("users.password.hashing.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Password hashing threads busy")
+                .register(meterRegistry);
+        Gauge.builder("users.password.hashing.cost", () -> cost)
+                .description("BCrypt cost new passwords are hashed with")
+                .register(meterRegistry);
+        this.hashTimer = Timer.builder("users.password.hashing.duration")
+                .description("Time to hash or verify a password, queueing included")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("users.password.hashing.rejected")
+                .description("Hashing requests turned away because the queue was full")
+                .register(meterRegistry);
+    }
+
+    private void recommendCost(int minCost, int maxCost, Duration targetLatency) {
+        BCryptPasswordEncoder probe = new BCryptPasswordEncoder(minCost);
+        probe.encode("calibration");
+        long start = System.nanoTime();
+        probe.encode("calibration");
+        long nanos = System.nanoTime() - start;
+
+        int recommended = minCost;
+        while (recommended < maxCost && nanos * 2 <= targetLatency.toNanos()) {
+            recommended++;
+            nanos *= 2;
+        }
+        if (recommended != cost) {
+            logger.info("BCrypt cost {} would fit the {} ms budget on this host (~{} ms), "
+                    + "config.users.password.cost is {}", recommended, targetLatency.toMillis(),
+                    TimeUnit.NANOSECONDS.toMillis(nanos), cost);
+        }
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return submit(() -> encoder.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return submit(() -> encoder.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        Integer hashCost = costOf(encodedPassword);
+        return hashCost == null || hashCost < cost;
+    }
+
+    /** Whether {@code encodedPassword} is a BCrypt hash that needs no upgrade. */
+    public boolean isCurrent(String encodedPassword) {
+        return costOf(encodedPassword) != null && !upgradeEncoding(encodedPassword);
+    }
+
+    public PasswordPolicy policy() {
+        return new PasswordPolicy("bcrypt", cost);
+    }
+
+    private static Integer costOf(String encodedPassword) {
+        if (encodedPassword == null) {
+            return null;
+        }
+        Matcher matcher = BCRYPT.matcher(encodedPassword);
+        return matcher.matches() ? Integer.parseInt(matcher.group(2)) : null;
+    }
+
+    private <T> T submit(Callable<T> task) {
+        Timer.Sample sample = Timer.start();
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Password hashing is saturated");
+        }
+        try {
+            return future.get(maxWait.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Password hashing timed out");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            throw new IllegalStateException("Interrupted while hashing a password", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        } finally {
+            sample.stop(hashTimer);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+}
@@ -0,0 +1,8 @@
+package com.sebastian.springcloud.msvc.users.services;
+
+/**
+ * Hashing parameters new passwords get; msvc-oauth rehashes a password that
+ * is below them on the next successful login.
+ */
+public record PasswordPolicy(String algorithm, int cost) {
+}
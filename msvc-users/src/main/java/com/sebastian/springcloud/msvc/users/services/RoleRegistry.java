@@ -0,0 +1,97 @@
+package com.sebastian.springcloud.msvc.users.services;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.sebastian.libs.msvc.commons.datasource.ReadReplicaRoutingDataSource;
+import com.sebastian.springcloud.msvc.users.entities.Role;
+import com.sebastian.springcloud.msvc.users.repositories.RoleRepository;
+
+/**
+ * Roles by name, held as an immutable map that is swapped as a whole. Roles
+ * are reference data that change a few times a year, so user writes resolve
+ * {@code ROLE_USER}/{@code ROLE_ADMIN} from here instead of querying the
+ * roles table every time.
+ *
+ * <p>The map is loaded when the application is ready and reloaded, with a
+ * single query, once it is older than {@code config.users.roles.refresh-interval}
+ * or when a name is not found (a role added since the last load), at most
+ * once per {@code config.users.roles.miss-reload-interval}.
+ */
+@Component
+public class RoleRegistry {
+
+    private record Snapshot(Map<String, RoleRef> byName, long loadedAt) {
+    }
+
+    private record RoleRef(Long id, String name) {
+    }
+
+    private final Logger logger = LoggerFactory.getLogger(RoleRegistry.class);
+    private final RoleRepository roleRepository;
+    private final long refreshIntervalNanos;
+    private final long missReloadIntervalNanos;
+
+    private volatile Snapshot snapshot;
+
+    public RoleRegistry(RoleRepository roleRepository,
+            @Value("${config.users.roles.refresh-interval:5m}") Duration refreshInterval,
+            @Value("${config.users.roles.miss-reload-interval:10s}") Duration missReloadInterval) {
+        this.roleRepository = roleRepository;
+        this.refreshIntervalNanos = refreshInterval.toNanos();
+        this.missReloadIntervalNanos = missReloadInterval.toNanos();
+        this.snapshot = new Snapshot(Map.of(), System.nanoTime() - refreshIntervalNanos - 1);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        reload(snapshot);
+    }
+
+    /**
+     * The role with this name as a new, detached {@link Role}: it only
+     * carries the id and name, which is all the {@code users_roles} join
+     * needs, and callers are free to modify it.
+     */
+    public Optional<Role> find(String name) {
+        Snapshot current = snapshot;
+        long age = System.nanoTime() - current.loadedAt();
+        if (age > refreshIntervalNanos
+                || (!current.byName().containsKey(name) && age > missReloadIntervalNanos)) {
+            current = reload(current);
+        }
+        RoleRef ref = current.byName().get(name);
+        if (ref == null) {
+            return Optional.empty();
+        }
+        Role role = new Role(ref.name());
+        role.setId(ref.id());
+        return Optional.of(role);
+    }
+
+    // Threads that found the same stale snapshot wait here, only the first one queries
+    private synchronized Snapshot reload(Snapshot seen) {
+        if (snapshot != seen) {
+            return snapshot;
+        }
+        Map<String, RoleRef> byName = new HashMap<>();
+        // From the primary, so a role added there is found by the reload its miss triggers
+        for (Role role : ReadReplicaRoutingDataSource.readFromPrimary(roleRepository::findAll)) {
+            byName.put(role.getName(), new RoleRef(role.getId(), role.getName()));
+        }
+        Snapshot loaded = new Snapshot(Map.copyOf(byName), System.nanoTime());
+        snapshot = loaded;
+        logger.debug("Loaded {} roles", byName.size());
+        return loaded;
+    }
+
+}
@@ -1,35 +1,58 @@
 package com.sebastian.springcloud.msvc.users.services;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
 
 import com.sebastian.springcloud.msvc.users.entities.Role;
 import com.sebastian.springcloud.msvc.users.entities.User;
-import com.sebastian.springcloud.msvc.users.repositories.RoleRepository;
+import com.sebastian.springcloud.msvc.users.models.UserCredentials;
+import com.sebastian.springcloud.msvc.users.models.UserSummary;
 import com.sebastian.springcloud.msvc.users.repositories.UserRepository;
 
 @Service
 public class UserServiceImpl implements IUserService {
 
     private final UserRepository userRepository;
-    private final RoleRepository roleRepository;
+    private final RoleRegistry roleRegistry;
+    private final AvailabilityFilter availabilityFilter;
     private final PasswordEncoder passwordEncoder;
 
-    public UserServiceImpl(UserRepository userRepository, RoleRepository roleRepository, PasswordEncoder passwordEncoder) {
+    public UserServiceImpl(UserRepository userRepository, RoleRegistry roleRegistry,
+            AvailabilityFilter availabilityFilter, PasswordEncoder passwordEncoder) {
         this.userRepository = userRepository;
-        this.roleRepository = roleRepository;
+        this.roleRegistry = roleRegistry;
+        this.availabilityFilter = availabilityFilter;
         this.passwordEncoder = passwordEncoder;
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<User> findAll() {
-        return (List<User>) userRepository.findAll();
+    public List<UserSummary> findPage(Long after, int size) {
+        List<UserSummary> page = userRepository.findSummaryPage(after == null ? 0L : after, PageRequest.ofSize(size));
+        if (page.isEmpty()) {
+            return page;
+        }
+
+        Map<Long, List<String>> roleNames = new HashMap<>();
+        for (Object[] row : userRepository.findRoleNames(page.stream().map(UserSummary::id).toList())) {
+            roleNames.computeIfAbsent((Long) row[0], id -> new ArrayList<>()).add((String) row[1]);
+        }
+        return page.stream()
+                .map(user -> user.withRoles(roleNames.getOrDefault(user.id(), List.of())))
+                .toList();
     }
 
     @Override
@@ -50,48 +73,70 @@ public class UserServiceImpl implements IUserService {
         return userRepository.findByEmail(email);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<UserCredentials> findCredentials(String username) {
+        List<Object[]> rows = userRepository.findCredentialRows(username);
+        if (rows.isEmpty()) {
+            return Optional.empty();
+        }
+
+        Object[] first = rows.get(0);
+        List<String> roles = rows.stream()
+                .map(row -> (String) row[3])
+                .filter(Objects::nonNull)
+                .toList();
+        // A null enabled column is an enabled user, as in update
+        boolean enabled = !Boolean.FALSE.equals(first[2]);
+        return Optional.of(new UserCredentials((String) first[0], (String) first[1], enabled, roles));
+    }
+
     @Override
     @Transactional
     public User save(User user) {
 
-        // Encode the password before saving
-        user.setPassword(passwordEncoder.encode(user.getPassword()));
-        
         // Validate username uniqueness
-        if (userRepository.existsByUsername(user.getUsername())) {
-            throw new RuntimeException("Username already exists: " + user.getUsername());            
+        if (availabilityFilter.usernameExists(user.getUsername())) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Username already exists: " + user.getUsername());            
         }
         
         // Validate email uniqueness
-        if (userRepository.existsByEmail(user.getEmail())) {
-            throw new RuntimeException("Email already exists: " + user.getEmail());            
+        if (availabilityFilter.emailExists(user.getEmail())) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Email already exists: " + user.getEmail());            
         }
 
+        // Hash only once the signup is known to be valid, BCrypt is the expensive part
+        user.setPassword(passwordEncoder.encode(user.getPassword()));
+
         List<Role> role = getRoleOptional(user);
         user.setRoles(role);
 
-        return userRepository.save(user);
+        User savedUser = saveUnique(user);
+        availabilityFilter.added(savedUser);
+        return savedUser;
     }
 
     @Override
     @Transactional
     public void deleteById(Long id) {
         userRepository.deleteById(id);
+        availabilityFilter.removed();
     }
 
     @Override
     @Transactional(readOnly = true)
     public boolean existsByUsername(String username) {
-        return userRepository.existsByUsername(username);
+        return availabilityFilter.usernameExists(username);
     }
 
     @Override
     @Transactional(readOnly = true)
     public boolean existsByEmail(String email) {
-        return userRepository.existsByEmail(email);
+        return availabilityFilter.emailExists(email);
     }
 
     @Override
+    @Transactional
     public Optional<User> update(User user, Long id) {       
         Optional<User> userOptional = userRepository.findById(id);
         
@@ -103,18 +148,21 @@ public class UserServiceImpl implements IUserService {
         
         // Check if username is being changed and if it already exists
         if (!existingUser.getUsername().equals(user.getUsername()) && 
-            userRepository.existsByUsername(user.getUsername())) {
-            throw new RuntimeException("Username already exists: " + user.getUsername());
+            availabilityFilter.usernameExists(user.getUsername())) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Username already exists: " + user.getUsername());
         }
         
         // Check if email is being changed and if it already exists
         if (!existingUser.getEmail().equals(user.getEmail()) && 
-            userRepository.existsByEmail(user.getEmail())) {
-            throw new RuntimeException("Email already exists: " + user.getEmail());
+            availabilityFilter.emailExists(user.getEmail())) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Email already exists: " + user.getEmail());
         }
 
         List<Role> role = getRoleOptional(user);
         user.setRoles(role);
+
+        boolean renamed = !existingUser.getUsername().equals(user.getUsername())
+                || !existingUser.getEmail().equals(user.getEmail());
         
         existingUser.setUsername(user.getUsername());
         existingUser.setEmail(user.getEmail());
@@ -125,16 +173,46 @@ public class UserServiceImpl implements IUserService {
             existingUser.setEnabled(user.getEnabled());
         }
 
-        return Optional.of(userRepository.save(existingUser));
+        User savedUser = saveUnique(existingUser);
+        if (renamed) {
+            // The old username and email stay in the filters until the next rebuild, like a delete
+            availabilityFilter.added(savedUser);
+        }
+        return Optional.of(savedUser);
+    }
+
+    @Override
+    @Transactional
+    public boolean updatePasswordHash(String username, String passwordHash) {
+        return userRepository.findByUsername(username)
+                .map(user -> {
+                    user.setPassword(passwordHash);
+                    return true;
+                })
+                .orElse(false);
+    }
+
+    // The filters can miss a name another replica has just committed; the unique constraints still catch it
+    private User saveUnique(User user) {
+        try {
+            return userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException e) {
+            if (e.getCause() instanceof ConstraintViolationException violation
+                    && violation.getKind() == ConstraintViolationException.ConstraintKind.UNIQUE) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT,
+                        "Username or email already exists: " + user.getUsername() + ", " + user.getEmail());
+            }
+            throw e;
+        }
     }
 
     private List<Role> getRoleOptional(User user) {
         List<Role> roles = new ArrayList<>();
-        Optional<Role> roleOptional = roleRepository.findByName("ROLE_USER");
+        Optional<Role> roleOptional = roleRegistry.find("ROLE_USER");
         roleOptional.ifPresent(roles::add);
 
         if (user.isAdmin()) {
-            Optional<Role> adminRoleOptional = roleRepository.findByName("ROLE_ADMIN");
+            Optional<Role> adminRoleOptional = roleRegistry.find("ROLE_ADMIN");
             adminRoleOptional.ifPresent(roles::add);
         }
 
@@ -0,0 +1,68 @@
+package com.sebastian.springcloud.msvc.users.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+class BloomFilterTests {
+
+	@Test
+	void everyValuePutIsReportedAsPresent() {
+		BloomFilter filter = BloomFilter.create(10_000, 0.01);
+		List<String> values = IntStream.range(0, 10_000).mapToObj(i -> "user" + i + "@example.com").toList();
+
+		values.forEach(filter::put);
+
+		assertThat(values).allMatch(filter::mightContain);
+	}
+
+	@Test
+	void valuesPutConcurrentlyAreAllReportedAsPresent() {
+		BloomFilter filter = BloomFilter.create(40_000, 0.01);
+		List<String> values = IntStream.range(0, 40_000).mapToObj(i -> UUID.randomUUID().toString()).toList();
+
+		values.parallelStream().forEach(filter::put);
+
+		assertThat(values).allMatch(filter::mightContain);
+	}
+
+	@Test
+	void absentValuesMatchAboutAsOftenAsSizedFor() {
+		BloomFilter filter = BloomFilter.create(10_000, 0.01);
+		IntStream.range(0, 10_000).forEach(i -> filter.put("present" + i));
+
+		long falsePositives = IntStream.range(0, 100_000).filter(i -> filter.mightContain("absent" + i)).count();
+
+		assertThat(falsePositives).isLessThan(2_000);
+		assertThat(filter.expectedFpp()).isLessThan(0.02);
+	}
+
+	@Test
+	void namesTheColumnCollationTreatsAsEqualShareAKey() {
+		assertThat(AvailabilityFilter.key("José.García@Example.com"))
+				.isEqualTo(AvailabilityFilter.key("jose.garcia@example.com"))
+				.isEqualTo(AvailabilityFilter.key("JOSE.GARCIA@EXAMPLE.COM"));
+		assertThat(AvailabilityFilter.key("Straße")).isEqualTo(AvailabilityFilter.key("strasse"));
+		assertThat(AvailabilityFilter.key("Ångström")).isEqualTo(AvailabilityFilter.key("angstrom"));
+	}
+
+	@Test
+	void aFoldedVariantOfANamePutIsReportedAsPresent() {
+		BloomFilter filter = BloomFilter.create(1_000, 0.01);
+		List<String> variants = new ArrayList<>();
+		for (String name : List.of("Zoë", "Renée", "Müller", "Łukasz", "Straße")) {
+			filter.put(AvailabilityFilter.key(name));
+			variants.add(name.toUpperCase());
+			variants.add(name.toLowerCase());
+		}
+		variants.addAll(List.of("zoe", "RENEE", "muller", "STRASSE"));
+
+		assertThat(variants).allMatch(variant -> filter.mightContain(AvailabilityFilter.key(variant)));
+	}
+
+}